@@ -0,0 +1,60 @@
+package fr.phylisium.firebaul.keyword;
+
+import fr.phylisium.firebaul.ActionBarFormatter;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction du Component d'action bar pour une partielle : rendu complet, et partielle identique
+ * à la précédente (cache par joueur).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionBarFormatterBenchmark {
+    @Param({"short", "long", "no_match"})
+    public String shape;
+
+    @Param({"false", "true"})
+    public boolean colorCodes;
+
+    private final ActionBarFormatter formatter = new ActionBarFormatter();
+    private final UUID player = UUID.randomUUID();
+    private String text;
+    private List<KeywordRegistry.Match> matches;
+
+    @Setup
+    public void setup() {
+        String base = BenchKeywords.text(shape);
+        // un '&c' parasite force le chemin lent de la sanitisation
+        text = colorCodes ? "&c" + base.substring(2) : base;
+        matches = BenchKeywords.registry(BenchKeywords.BASE_KEYWORDS.length).findAllMatches(text);
+    }
+
+    @Benchmark
+    public Component format() {
+        return formatter.formatForActionBar(text, matches);
+    }
+
+    @Benchmark
+    public Component formatRepeatedPartial() {
+        return formatter.formatForActionBar(player, text, matches);
+    }
+}
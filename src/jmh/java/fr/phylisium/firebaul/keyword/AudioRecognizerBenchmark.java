@@ -0,0 +1,126 @@
+package fr.phylisium.firebaul.keyword;
+
+import de.maxhenkel.opus4j.OpusEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vosk.Model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Décodage Opus + rééchantillonnage 48 kHz -> 16 kHz d'une trame voice chat (20 ms).
+ * <p>
+ * Propriétés système :
+ * <ul>
+ *     <li>{@code firebaul.bench.model} (obligatoire) : dossier d'un modèle Vosk, requis pour construire un {@link AudioRecognizer} ;</li>
+ *     <li>{@code firebaul.bench.opus} (optionnel) : capture écrite par {@link OpusCaptureWriter} ({@code .opuscap}),
+ *     dont seules les trames sont rejouées.
+ *     Sans fichier, deux secondes de signal vocal synthétique sont encodées au démarrage.</li>
+ * </ul>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AudioRecognizerBenchmark {
+    private static final int SAMPLE_RATE = 48000;
+    private static final int FRAME_SIZE = 960;
+
+    private Model model;
+    private AudioRecognizer recognizer;
+    private byte[][] frames;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        String modelPath = System.getProperty("firebaul.bench.model");
+        if (modelPath == null || modelPath.isBlank()) {
+            throw new IllegalStateException("Set -Dfirebaul.bench.model=<vosk model directory> to run this benchmark");
+        }
+        model = new Model(modelPath);
+        recognizer = new AudioRecognizer(model);
+        String fixture = System.getProperty("firebaul.bench.opus");
+        frames = fixture == null || fixture.isBlank() ? synthesizeFrames() : readFrames(Path.of(fixture));
+        if (frames.length == 0) {
+            throw new IllegalStateException("No opus frames to decode");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (recognizer != null) recognizer.close();
+        if (model != null) model.close();
+    }
+
+    @Benchmark
+    public byte[] decodeOpusTo16kBytes() {
+        return recognizer.decodeOpusTo16kBytes(nextFrame());
+    }
+
+    @Benchmark
+    public int decodeOpusTo16k() {
+        return recognizer.decodeOpusTo16k(nextFrame());
+    }
+
+    private byte[] nextFrame() {
+        if (next == frames.length) {
+            next = 0;
+        }
+        return frames[next++];
+    }
+
+    private static byte[][] readFrames(Path file) throws IOException {
+        List<byte[]> frames = new ArrayList<>();
+        OpusCaptureReader.read(file, (timestampMicros, frame) -> frames.add(frame));
+        return frames.toArray(new byte[0][]);
+    }
+
+    /**
+     * Voix synthétique : fondamentale glissante et harmoniques modulées en syllabes, plus un peu de bruit.
+     */
+    private static byte[][] synthesizeFrames() throws IOException {
+        Random random = new Random(42);
+        int frameCount = 100;
+        byte[][] frames = new byte[frameCount][];
+        OpusEncoder encoder = new OpusEncoder(SAMPLE_RATE, 1, OpusEncoder.Application.VOIP);
+        try {
+            short[] pcm = new short[FRAME_SIZE];
+            double phase = 0;
+            for (int f = 0; f < frameCount; f++) {
+                for (int i = 0; i < FRAME_SIZE; i++) {
+                    double t = (f * FRAME_SIZE + i) / (double) SAMPLE_RATE;
+                    double pitch = 120 + 30 * Math.sin(2 * Math.PI * 0.7 * t);
+                    phase += 2 * Math.PI * pitch / SAMPLE_RATE;
+                    double syllable = 0.5 + 0.5 * Math.sin(2 * Math.PI * 4 * t);
+                    double v = 0;
+                    for (int h = 1; h <= 8; h++) {
+                        v += Math.sin(h * phase) / h;
+                    }
+                    v = v * syllable * 6000 + random.nextGaussian() * 200;
+                    pcm[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, v));
+                }
+                frames[f] = encoder.encode(pcm);
+            }
+        } finally {
+            encoder.close();
+        }
+        return frames;
+    }
+}
@@ -0,0 +1,72 @@
+package fr.phylisium.firebaul.keyword;
+
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextColor;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Jeux de données communs aux benchmarks : mots-clés et transcriptions Vosk typiques.
+ */
+final class BenchKeywords {
+    static final String[] BASE_KEYWORDS = {"boule de feu", "choucroute", "téléportation", "éclair", "soin", "bouclier"};
+
+    static final String SHORT_PARTIAL = "envoie une boule de feu";
+    static final String LONG_PARTIAL = "alors je pense que si tu envoies une boule de feu sur le creeper puis un éclair "
+            + "et que tu te mets un bouclier avant la téléportation on mange une choucroute après le soin";
+    static final String NO_MATCH_PARTIAL = "il fait vraiment beau aujourd'hui sur le serveur on devrait construire une maison";
+
+    private BenchKeywords() {
+    }
+
+    /**
+     * Registre avec les mots-clés de base complétés par des mots-clés synthétiques jusqu'à {@code count}.
+     */
+    static KeywordRegistry registry(int count) {
+        KeywordRegistry registry = new KeywordRegistry();
+        for (KeywordAction action : actions(count)) {
+            registry.register(action);
+        }
+        return registry;
+    }
+
+    static List<KeywordAction> actions(int count) {
+        List<KeywordAction> actions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String keyword = i < BASE_KEYWORDS.length ? BASE_KEYWORDS[i] : "sort numéro " + i;
+            actions.add(action(keyword));
+        }
+        return actions;
+    }
+
+    static String text(String shape) {
+        return switch (shape) {
+            case "short" -> SHORT_PARTIAL;
+            case "no_match" -> NO_MATCH_PARTIAL;
+            default -> LONG_PARTIAL;
+        };
+    }
+
+    private static KeywordAction action(String keyword) {
+        return new KeywordAction() {
+            @Override
+            public String getKeyword() {
+                return keyword;
+            }
+
+            @Override
+            public TextColor getColor() {
+                return NamedTextColor.GOLD;
+            }
+
+            @Override
+            public Consumer<Player> getHandler() {
+                return player -> {
+                };
+            }
+        };
+    }
+}
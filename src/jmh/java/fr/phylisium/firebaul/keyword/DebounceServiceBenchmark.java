@@ -0,0 +1,72 @@
+package fr.phylisium.firebaul.keyword;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Debounce sous contention : 8 threads de reconnaissance qui déclenchent soit le même joueur/keyword
+ * (pire cas : un seul CAS gagne), soit des joueurs répartis (cas serveur normal).
+ * Compare {@link DebounceService#tryAcquire} à l'ancien couple canTrigger/recordTrigger.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class DebounceServiceBenchmark {
+    private static final int PLAYERS = 512;
+    private static final long WINDOW_MS = 1000;
+
+    private DebounceService service;
+    private UUID[] players;
+    private String keyword;
+    private int keywordId;
+
+    @Setup
+    public void setup() {
+        service = new DebounceService();
+        players = new UUID[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = UUID.randomUUID();
+        }
+        keyword = BenchKeywords.BASE_KEYWORDS[0];
+        keywordId = service.keywordId(keyword);
+    }
+
+    @Benchmark
+    public boolean tryAcquireSameKey() {
+        return service.tryAcquire(players[0], keywordId, WINDOW_MS);
+    }
+
+    @Benchmark
+    public boolean tryAcquireSpread() {
+        UUID player = players[ThreadLocalRandom.current().nextInt(PLAYERS)];
+        return service.tryAcquire(player, keywordId, WINDOW_MS);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public boolean canTriggerRecordSpread() {
+        UUID player = players[ThreadLocalRandom.current().nextInt(PLAYERS)];
+        if (!service.canTrigger(player, keyword, WINDOW_MS)) {
+            return false;
+        }
+        service.recordTrigger(player, keyword);
+        return true;
+    }
+}
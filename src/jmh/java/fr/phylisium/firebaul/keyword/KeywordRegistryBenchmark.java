@@ -0,0 +1,70 @@
+package fr.phylisium.firebaul.keyword;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche des mots-clés dans une transcription : passage complet ({@link KeywordRegistry#findAllMatches})
+ * et suivi incrémental d'une partielle qui s'allonge ({@link IncrementalKeywordMatcher}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeywordRegistryBenchmark {
+    @Param({"6", "64", "512"})
+    public int keywords;
+
+    @Param({"short", "long", "no_match"})
+    public String shape;
+
+    private KeywordRegistry registry;
+    private IncrementalKeywordMatcher incremental;
+    private String text;
+    private String[] growingPartials;
+    private int next;
+
+    @Setup
+    public void setup() {
+        registry = BenchKeywords.registry(keywords);
+        incremental = new IncrementalKeywordMatcher(registry);
+        text = BenchKeywords.text(shape);
+        // partielles successives d'un même énoncé, mot par mot, comme les renvoie Vosk
+        String[] words = text.split(" ");
+        growingPartials = new String[words.length];
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words.length; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(words[i]);
+            growingPartials[i] = sb.toString();
+        }
+    }
+
+    @Benchmark
+    public List<KeywordRegistry.Match> findAllMatches() {
+        return registry.findAllMatches(text);
+    }
+
+    @Benchmark
+    public List<KeywordRegistry.Match> incrementalPartials() {
+        if (next == growingPartials.length) {
+            next = 0;
+            incremental.reset();
+        }
+        return incremental.update(growingPartials[next++]);
+    }
+}
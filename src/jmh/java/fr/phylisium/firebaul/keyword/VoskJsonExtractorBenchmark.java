@@ -0,0 +1,76 @@
+package fr.phylisium.firebaul.keyword;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare l'ancienne extraction (arbre Gson) à {@link VoskJsonExtractor} sur des résultats Vosk typiques.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VoskJsonExtractorBenchmark {
+    private static final String PARTIAL = "{\n  \"partial\" : \"envoie une boule de feu sur\"\n}";
+    private static final String FINAL = "{\n  \"text\" : \"envoie une boule de feu sur le creeper\"\n}";
+    private static final String FINAL_WITH_WORDS = "{\n  \"result\" : [{\n      \"conf\" : 1.000000,\n"
+            + "      \"end\" : 1.020000,\n      \"start\" : 0.630000,\n      \"word\" : \"choucroute\"\n    }],\n"
+            + "  \"text\" : \"choucroute\"\n}";
+
+    @Param({"partial", "final", "final_with_words"})
+    public String shape;
+
+    private final Gson gson = new Gson();
+    private String json;
+    private String field;
+
+    @Setup
+    public void setup() {
+        switch (shape) {
+            case "partial" -> {
+                json = PARTIAL;
+                field = "partial";
+            }
+            case "final" -> {
+                json = FINAL;
+                field = "text";
+            }
+            default -> {
+                json = FINAL_WITH_WORDS;
+                field = "text";
+            }
+        }
+    }
+
+    @Benchmark
+    public String gsonTree() {
+        JsonObject obj = gson.fromJson(json, JsonObject.class);
+        JsonElement element = obj.get(field);
+        if (element == null || element.isJsonNull()) {
+            return null;
+        }
+        String text = element.getAsString();
+        return text == null || text.isBlank() ? null : text.trim();
+    }
+
+    @Benchmark
+    public String scanner() {
+        return VoskJsonExtractor.extract(json, field);
+    }
+}
@@ -1,5 +1,6 @@
 package fr.phylisium.firebaul;
 
+import fr.phylisium.firebaul.ai.WorldSnapshots;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public final class Firebaul extends JavaPlugin {
@@ -13,5 +14,7 @@ public final class Firebaul extends JavaPlugin {
     @Override
     public void onDisable() {
         // Plugin shutdown logic
+        WorldSnapshots.shutdown();
+        Tasks.shutdown();
     }
 }
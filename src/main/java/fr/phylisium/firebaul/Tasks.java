@@ -1,4 +1,130 @@
 package fr.phylisium.firebaul;
 
+import fr.phylisium.firebaul.scheduler.MainThreadQueue;
+import fr.phylisium.firebaul.scheduler.SchedulerBuilder;
+import org.bukkit.Bukkit;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point d'entrée unique pour exécuter du travail sur le thread principal.
+ * Tout passe par une {@link MainThreadQueue} partagée, créée au premier usage, plutôt que par un
+ * runTask/callSyncMethod par appelant.
+ * <p>
+ * Après {@link #shutdown()}, la file n'est plus recréée : les appels avec résultat échouent en
+ * RejectedExecutionException et les tâches sans résultat sont ignorées, comme celles encore en attente
+ * à l'arrêt.
+ */
 public class Tasks {
+    private static final long DEFAULT_TICK_BUDGET_US = 2000;
+    private static final long DEFAULT_CALL_TIMEOUT_MS = 5000;
+
+    private static volatile MainThreadQueue queue;
+    private static volatile long callTimeoutMillis = DEFAULT_CALL_TIMEOUT_MS;
+    private static volatile boolean stopped;
+
+    /**
+     * Exécute la tâche sur le thread principal lors d'un prochain tick.
+     */
+    public static void runSync(Runnable task) {
+        if (stopped) {
+            return;
+        }
+        try {
+            queue().submit(task);
+        } catch (RejectedExecutionException ignored) {
+            // arrêt concurrent : la tâche aurait été abandonnée avec la file
+        }
+    }
+
+    /**
+     * Exécute la tâche sur le thread principal ; directement si l'appelant y est déjà.
+     */
+    public static <T> CompletableFuture<T> callSync(Callable<T> task) {
+        if (Bukkit.isPrimaryThread()) {
+            try {
+                return CompletableFuture.completedFuture(task.call());
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        try {
+            return queue().call(task);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Comme {@link #callSync(Callable)}, avec une échéance : le future échoue en TimeoutException au-delà
+     * de {@code timeout}, et la tâche est abandonnée si elle n'a pas encore été exécutée.
+     */
+    public static <T> CompletableFuture<T> callSync(Callable<T> task, long timeout, TimeUnit unit) {
+        if (Bukkit.isPrimaryThread()) {
+            return callSync(task);
+        }
+        try {
+            return queue().call(task, timeout, unit);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * {@link #callSync(Callable, long, TimeUnit)} avec l'échéance de scheduler.call_timeout_ms.
+     */
+    public static <T> CompletableFuture<T> callSyncWithDeadline(Callable<T> task) {
+        if (Bukkit.isPrimaryThread()) {
+            return callSync(task);
+        }
+        // queue() lit scheduler.call_timeout_ms lors de sa première création
+        MainThreadQueue current;
+        try {
+            current = queue();
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return current.call(task, callTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * File partagée, créée au premier usage.
+     *
+     * @throws RejectedExecutionException après {@link #shutdown()}
+     */
+    public static MainThreadQueue queue() {
+        MainThreadQueue current = queue;
+        if (current == null) {
+            synchronized (Tasks.class) {
+                if (stopped) {
+                    throw new RejectedExecutionException("Main-thread queue stopped");
+                }
+                current = queue;
+                if (current == null) {
+                    var plugin = Firebaul.getInstance();
+                    if (plugin == null) {
+                        throw new IllegalStateException("Firebaul instance non initialisée");
+                    }
+                    long budget = plugin.getConfig().getLong("scheduler.tick_budget_us", DEFAULT_TICK_BUDGET_US);
+                    callTimeoutMillis = Math.max(1L, plugin.getConfig().getLong("scheduler.call_timeout_ms", DEFAULT_CALL_TIMEOUT_MS));
+                    current = new SchedulerBuilder(plugin).tickBudgetMicros(budget).build().start();
+                    queue = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public static void shutdown() {
+        synchronized (Tasks.class) {
+            stopped = true;
+            if (queue != null) {
+                queue.stop();
+                queue = null;
+            }
+        }
+    }
 }
@@ -0,0 +1,100 @@
+package fr.phylisium.firebaul.ai;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Résumé des blocs d'un chunk, section de 16 blocs de haut par section : une ligne par section non
+ * vide avec les matériaux les plus présents et leur nombre. Travaille sur un {@link ChunkSnapshot},
+ * donc hors du thread principal ; les sections vides (air uniquement) sont sautées sans être lues.
+ */
+public final class ChunkBlockSummary {
+    private static final int SECTION_HEIGHT = 16;
+    private static final int SECTION_BLOCKS = 16 * 16 * SECTION_HEIGHT;
+    // matériaux listés par section, les autres sont regroupés
+    private static final int TOP_MATERIALS = 8;
+    private static final Material[] MATERIALS = Material.values();
+
+    private ChunkBlockSummary() {
+    }
+
+    /**
+     * Parcourt les sections de {@code minHeight} (inclus) à {@code maxHeight} (exclu), les hauteurs du
+     * monde d'où provient {@code snapshot}.
+     */
+    public static List<String> summarize(ChunkSnapshot snapshot, int minHeight, int maxHeight) {
+        List<String> lines = new ArrayList<>();
+        lines.add("Chunk " + snapshot.getX() + "," + snapshot.getZ() + " (" + snapshot.getWorldName()
+                + "), y " + minHeight + ".." + (maxHeight - 1));
+        int[] counts = new int[MATERIALS.length];
+        int[] seen = new int[SECTION_BLOCKS];
+        int emptySections = 0;
+        for (int sectionY = minHeight; sectionY < maxHeight; sectionY += SECTION_HEIGHT) {
+            // isSectionEmpty est indexé depuis la section la plus basse du monde
+            if (snapshot.isSectionEmpty((sectionY - minHeight) >> 4)) {
+                emptySections++;
+                continue;
+            }
+            int top = Math.min(sectionY + SECTION_HEIGHT, maxHeight);
+            int distinct = 0;
+            for (int y = sectionY; y < top; y++) {
+                for (int x = 0; x < 16; x++) {
+                    for (int z = 0; z < 16; z++) {
+                        int ordinal = snapshot.getBlockType(x, y, z).ordinal();
+                        if (counts[ordinal]++ == 0) {
+                            seen[distinct++] = ordinal;
+                        }
+                    }
+                }
+            }
+            lines.add(sectionLine(sectionY, top, counts, seen, distinct));
+            for (int i = 0; i < distinct; i++) {
+                counts[seen[i]] = 0;
+            }
+        }
+        if (emptySections > 0) {
+            lines.add(emptySections + " section(s) vide(s) (air) ignorée(s)");
+        }
+        return lines;
+    }
+
+    private static String sectionLine(int bottom, int top, int[] counts, int[] seen, int distinct) {
+        // tri partiel : seuls les TOP_MATERIALS premiers sont ordonnés
+        int listed = Math.min(distinct, TOP_MATERIALS);
+        for (int i = 0; i < listed; i++) {
+            int best = i;
+            for (int j = i + 1; j < distinct; j++) {
+                if (counts[seen[j]] > counts[seen[best]]) {
+                    best = j;
+                }
+            }
+            int swap = seen[i];
+            seen[i] = seen[best];
+            seen[best] = swap;
+        }
+        StringBuilder sb = new StringBuilder("y ").append(bottom).append("..").append(top - 1).append(": ");
+        if (distinct == 1) {
+            sb.append("uniforme ");
+        }
+        int others = 0;
+        for (int i = 0; i < distinct; i++) {
+            int count = counts[seen[i]];
+            if (i < listed) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(MATERIALS[seen[i]].name().toLowerCase(Locale.ROOT)).append('=').append(count);
+            } else {
+                others += count;
+            }
+        }
+        if (others > 0) {
+            sb.append(", autres (").append(distinct - listed).append(" types)=").append(others);
+        }
+        return sb.toString();
+    }
+}
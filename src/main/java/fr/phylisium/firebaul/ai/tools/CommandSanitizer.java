@@ -0,0 +1,329 @@
+package fr.phylisium.firebaul.ai;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Corrige les commandes produites par le LLM avant leur exécution (slash initial, ids sans namespace,
+ * ids d'enchantement non quotés dans le NBT, ordre count/NBT de give).
+ * La commande est découpée en une seule passe (les blocs {...}, [...] et les chaînes restent des tokens
+ * entiers), puis confiée à la règle enregistrée pour sa racine ({@link #register}). Les résultats sont
+ * gardés dans un petit cache LRU : une rafale de commandes identiques ne re-découpe rien.
+ */
+public class CommandSanitizer {
+    private static final int DEFAULT_CACHE_SIZE = 256;
+    private static final String NAMESPACE = "minecraft:";
+
+    /**
+     * Réécrit les arguments (tokens après la racine) ; retourne vrai si quelque chose a changé.
+     */
+    @FunctionalInterface
+    public interface Rule {
+        boolean rewrite(List<String> args);
+    }
+
+    private final Map<String, Rule> rules = new ConcurrentHashMap<>();
+    private final Map<String, String> cache;
+
+    public CommandSanitizer() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    public CommandSanitizer(int cacheSize) {
+        int max = Math.max(0, cacheSize);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > max;
+            }
+        };
+    }
+
+    /**
+     * Sanitizer muni des règles give, summon, effect, particle, setblock et fill.
+     */
+    public static CommandSanitizer withDefaultRules() {
+        CommandSanitizer sanitizer = new CommandSanitizer();
+        sanitizer.register("give", CommandSanitizer::rewriteGive);
+        sanitizer.register("summon", CommandSanitizer::rewriteSummon);
+        sanitizer.register("effect", CommandSanitizer::rewriteEffect);
+        sanitizer.register("particle", namespaceArgument(0));
+        sanitizer.register("setblock", namespaceArgument(3));
+        sanitizer.register("fill", namespaceArgument(6));
+        return sanitizer;
+    }
+
+    /**
+     * Enregistre (ou remplace) la règle d'une racine de commande, sans slash ni namespace.
+     */
+    public void register(String root, Rule rule) {
+        rules.put(root.toLowerCase(Locale.ROOT), rule);
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Commande prête pour dispatchCommand ; la chaîne d'origine si rien n'est à corriger.
+     */
+    public String sanitize(String command) {
+        if (command == null) {
+            return null;
+        }
+        String cached;
+        synchronized (cache) {
+            cached = cache.get(command);
+        }
+        if (cached != null) {
+            return cached;
+        }
+        String sanitized = rewrite(command);
+        synchronized (cache) {
+            cache.put(command, sanitized);
+        }
+        return sanitized;
+    }
+
+    private String rewrite(String command) {
+        List<String> tokens = tokenize(command);
+        if (tokens.isEmpty()) {
+            return command;
+        }
+        String head = tokens.get(0);
+        boolean changed = false;
+        if (head.startsWith("/")) {
+            // dispatchCommand n'accepte pas le slash des commandes tapées en jeu
+            head = head.substring(1);
+            tokens.set(0, head);
+            changed = true;
+        }
+        String root = head.toLowerCase(Locale.ROOT);
+        if (root.startsWith(NAMESPACE)) {
+            root = root.substring(NAMESPACE.length());
+        }
+        Rule rule = rules.get(root);
+        if (rule != null) {
+            List<String> args = tokens.subList(1, tokens.size());
+            changed |= rule.rewrite(args);
+        }
+        return changed ? String.join(" ", tokens) : command;
+    }
+
+    /**
+     * Découpe sur les espaces hors des blocs {...}/[...] et des chaînes quotées. Un bloc non refermé
+     * s'étend jusqu'à la fin de la commande.
+     */
+    static List<String> tokenize(String command) {
+        List<String> tokens = new ArrayList<>();
+        int depth = 0;
+        char quote = 0;
+        int start = -1;
+        for (int i = 0; i < command.length(); i++) {
+            char c = command.charAt(i);
+            if (quote != 0) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == quote) {
+                    quote = 0;
+                }
+                continue;
+            }
+            if (Character.isWhitespace(c) && depth == 0) {
+                if (start >= 0) {
+                    tokens.add(command.substring(start, i));
+                    start = -1;
+                }
+                continue;
+            }
+            if (start < 0) {
+                start = i;
+            }
+            switch (c) {
+                case '"', '\'' -> quote = c;
+                case '{', '[' -> depth++;
+                case '}', ']' -> depth = Math.max(0, depth - 1);
+                default -> {
+                }
+            }
+        }
+        if (start >= 0) {
+            tokens.add(command.substring(start));
+        }
+        return tokens;
+    }
+
+    /**
+     * give &lt;cible&gt; &lt;item&gt;[{nbt}] [count] : namespace de l'item, ids du NBT quotés, et count
+     * replacé devant le NBT lorsqu'il le suit.
+     */
+    static boolean rewriteGive(List<String> args) {
+        if (args.size() < 2) {
+            return false;
+        }
+        String item = args.get(1);
+        int suffix = suffixStart(item);
+        String id = item.substring(0, suffix);
+        String nbt = item.substring(suffix);
+        int next = 2;
+        if (nbt.isEmpty() && args.size() > next && args.get(next).startsWith("{")) {
+            // NBT séparé de l'item par un espace
+            nbt = args.get(next++);
+        }
+        String namespaced = namespaced(id);
+        boolean changed = !namespaced.equals(id) || next == 3;
+        if (nbt.startsWith("{")) {
+            String quoted = quoteIds(nbt);
+            changed |= !quoted.equals(nbt);
+            nbt = quoted;
+        }
+        List<String> rewritten = new ArrayList<>(args.size());
+        rewritten.add(args.get(0));
+        if (nbt.startsWith("{") && args.size() > next && isCount(args.get(next))) {
+            rewritten.add(namespaced);
+            rewritten.add(args.get(next++));
+            rewritten.add(nbt);
+            changed = true;
+        } else {
+            rewritten.add(namespaced + nbt);
+        }
+        for (int i = next; i < args.size(); i++) {
+            rewritten.add(args.get(i));
+        }
+        if (changed) {
+            args.clear();
+            args.addAll(rewritten);
+        }
+        return changed;
+    }
+
+    /**
+     * summon &lt;entité&gt; [x y z] [{nbt}] : namespace de l'entité et ids du NBT quotés.
+     */
+    static boolean rewriteSummon(List<String> args) {
+        boolean changed = namespaceArgument(0).rewrite(args);
+        for (int i = 1; i < args.size(); i++) {
+            String arg = args.get(i);
+            if (arg.startsWith("{")) {
+                String quoted = quoteIds(arg);
+                if (!quoted.equals(arg)) {
+                    args.set(i, quoted);
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * effect give|clear &lt;cible&gt; &lt;effet&gt; ... ; l'ancienne forme {@code effect <cible> <effet>} devient
+     * {@code effect give <cible> <effet>}.
+     */
+    static boolean rewriteEffect(List<String> args) {
+        if (args.isEmpty()) {
+            return false;
+        }
+        boolean changed = false;
+        String action = args.get(0).toLowerCase(Locale.ROOT);
+        if (!action.equals("give") && !action.equals("clear")) {
+            args.add(0, "give");
+            changed = true;
+        }
+        return namespaceArgument(2).rewrite(args) | changed;
+    }
+
+    /**
+     * Règle qui préfixe de minecraft: l'identifiant en position {@code index} des arguments.
+     */
+    public static Rule namespaceArgument(int index) {
+        return args -> {
+            if (args.size() <= index) {
+                return false;
+            }
+            String arg = args.get(index);
+            int suffix = suffixStart(arg);
+            String id = arg.substring(0, suffix);
+            String namespaced = namespaced(id);
+            if (namespaced.equals(id)) {
+                return false;
+            }
+            args.set(index, namespaced + arg.substring(suffix));
+            return true;
+        };
+    }
+
+    /**
+     * id:sharpness -> id:"minecraft:sharpness", en une passe ; les ids déjà quotés ou namespacés sont laissés tels quels.
+     */
+    static String quoteIds(String nbt) {
+        StringBuilder out = null;
+        int copied = 0;
+        int n = nbt.length();
+        for (int i = 0; i + 3 < n; i++) {
+            char c = nbt.charAt(i);
+            if ((c != 'i' && c != 'I') || (nbt.charAt(i + 1) != 'd' && nbt.charAt(i + 1) != 'D') || nbt.charAt(i + 2) != ':') {
+                continue;
+            }
+            char before = i > 0 ? nbt.charAt(i - 1) : ' ';
+            if (isWordChar(before) || before == ':' || before == '"') {
+                // ItemId:, "id": ou namespace:id -> pas une clé id
+                continue;
+            }
+            int valueStart = i + 3;
+            int end = valueStart;
+            while (end < n && isWordChar(nbt.charAt(end))) {
+                end++;
+            }
+            if (end == valueStart || (end < n && nbt.charAt(end) == ':')) {
+                continue;
+            }
+            if (out == null) {
+                out = new StringBuilder(n + 16);
+            }
+            out.append(nbt, copied, valueStart).append('"').append(NAMESPACE).append(nbt, valueStart, end).append('"');
+            copied = end;
+            i = end - 1;
+        }
+        if (out == null) {
+            return nbt;
+        }
+        return out.append(nbt, copied, n).toString();
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static int suffixStart(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c == '{' || c == '[') {
+                return i;
+            }
+        }
+        return token.length();
+    }
+
+    private static String namespaced(String id) {
+        if (id.isEmpty() || id.indexOf(':') >= 0 || id.charAt(0) == '@' || id.charAt(0) == '~' || id.charAt(0) == '^') {
+            return id;
+        }
+        return NAMESPACE + id;
+    }
+
+    private static boolean isCount(String token) {
+        if (token.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,116 +1,298 @@
 package fr.phylisium.firebaul.ai;
 
 import fr.phylisium.firebaul.Firebaul;
+import fr.phylisium.firebaul.Tasks;
 import fr.phylisium.firebaul.mapper.MinecraftMapper;
 import io.github.ollama4j.tools.annotations.ToolProperty;
 import io.github.ollama4j.tools.annotations.ToolSpec;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
 import java.util.UUID;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Outils de lecture des entités. Chaque outil existe en variante asynchrone ({@code ...Async}) qui
+ * retourne un CompletableFuture sans occuper de thread ; la variante exposée au LLM l'attend, dans la
+ * limite de scheduler.call_timeout_ms. {@link #batchLookup} regroupe plusieurs recherches (joueurs,
+ * entités, zones) en un seul passage sur le thread principal et un seul aller-retour du LLM.
+ */
 public class EntityTools {
+    private static final int DEFAULT_RADIUS = 10;
+    private static final int MAX_BATCH_QUERIES = 32;
+    // au-delà, une recherche de zone est tronquée pour ne pas saturer le contexte du LLM
+    private static final int MAX_BATCH_ENTITIES = 50;
+
     public EntityTools() {
     }
 
-    private <T> T callSync(Callable<T> task) throws Exception {
-        if (Bukkit.isPrimaryThread()) {
-            return task.call();
+    /**
+     * Exécute {@code task} sur le thread principal sans bloquer l'appelant ; le future échoue au-delà de
+     * scheduler.call_timeout_ms (la tâche est alors abandonnée si elle n'a pas encore été exécutée).
+     */
+    private <T> CompletableFuture<T> callAsync(Callable<T> task) {
+        if (Firebaul.getInstance() == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Firebaul instance non initialisée"));
         }
+        return Tasks.callSyncWithDeadline(task);
+    }
 
-        var plugin = Firebaul.getInstance();
-        if (plugin == null) {
-            throw new IllegalStateException("Firebaul instance non initialisée");
+    /**
+     * Entité suivie par la dernière {@link WorldSnapshot} publiée (proche d'un joueur), lue sans passer
+     * par le thread principal ; null si elle n'y figure pas ou si l'UUID est invalide.
+     */
+    private static WorldSnapshot.EntityState trackedEntity(String entityId) {
+        try {
+            WorldSnapshot snapshot = WorldSnapshots.published();
+            return snapshot == null ? null : snapshot.getEntity(UUID.fromString(entityId));
+        } catch (RuntimeException e) {
+            return null;
         }
+    }
 
-        try {
-            var future = Bukkit.getScheduler().callSyncMethod(plugin, task);
-            return future.get();
-        } catch (InterruptedException ie) {
-            Thread.currentThread().interrupt();
-            throw new Exception("Interrompu en attendant l'exécution sur le thread principal", ie);
-        } catch (ExecutionException ee) {
-            throw new Exception("Erreur pendant l'exécution sur le thread principal", ee.getCause());
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            return "délai d'attente du thread principal dépassé";
+        }
+        if (cause instanceof CancellationException) {
+            return "appel annulé";
+        }
+        if (cause instanceof RejectedExecutionException) {
+            return "serveur en cours d'arrêt";
         }
+        return cause.getMessage();
     }
 
     @ToolSpec(name = "getEntityIdAroundLocation", desc = "Retourne une liste des UUIDs des entités autour d'une position donnée dans le monde Minecraft. Si une erreur survient, retourne un message d'erreur.")
     public List<String> getEntityIdAroundLocation(@ToolProperty(name = "location", desc = "Position au format x,y,z,world", required = true) String location,
                                                   @ToolProperty(name = "radius", desc = "Rayon de recherche (optionnel, défaut 10)", required = false) Integer radius) {
-        try {
-            int r = (radius == null) ? 10 : radius;
-            return callSync(() -> {
-                Location l = MinecraftMapper.mapStringToLocation(location);
-                var entities = l.getWorld().getNearbyEntities(l, r, r, r);
-                return List.copyOf(entities.stream().map(e -> e.getUniqueId().toString()).toList());
-            });
-        }
-        catch (Exception e) {
-            return List.of("Erreur lors de la récupération des entités : " + e.getMessage());
-        }
+        return getEntityIdAroundLocationAsync(location, radius).join();
+    }
+
+    public CompletableFuture<List<String>> getEntityIdAroundLocationAsync(String location, Integer radius) {
+        int r = (radius == null) ? DEFAULT_RADIUS : radius;
+        return callAsync(() -> {
+            Location l = MinecraftMapper.mapStringToLocation(location);
+            var entities = l.getWorld().getNearbyEntities(l, r, r, r);
+            return List.copyOf(entities.stream().map(e -> e.getUniqueId().toString()).toList());
+        }).exceptionally(e -> List.of("Erreur lors de la récupération des entités : " + describe(e)));
     }
 
     @ToolSpec(name = "getLocationFromEntityId", desc = "Retourne la position d'une entité donnée son UUID dans le monde Minecraft. Si l'entité n'est pas trouvée, retourne un message d'erreur.")
     public String getLocationFromEntityId(@ToolProperty(name = "entityId", desc = "UUID de l'entité", required = true) String entityId) {
-        try {
-            return callSync(() -> {
-                var uuid = UUID.fromString(entityId);
-                for (var world : Bukkit.getWorlds()) {
-                    var entity = world.getEntity(uuid);
-                    if (entity != null) {
-                        var loc = entity.getLocation();
-                        return MinecraftMapper.mapLocationToString(loc);
-                    }
-                }
-                return "Entité non trouvée";
-            });
-        }
-        catch (Exception e) {
-            return "Erreur lors de la récupération de l'entité : " + e.getMessage();
+        return getLocationFromEntityIdAsync(entityId).join();
+    }
+
+    public CompletableFuture<String> getLocationFromEntityIdAsync(String entityId) {
+        WorldSnapshot.EntityState tracked = trackedEntity(entityId);
+        if (tracked != null) {
+            return CompletableFuture.completedFuture(MinecraftMapper.mapLocationToString(tracked.getLocation()));
         }
+        return callAsync(() -> {
+            var entity = findEntity(UUID.fromString(entityId));
+            if (entity == null) {
+                return "Entité non trouvée";
+            }
+            return MinecraftMapper.mapLocationToString(entity.getLocation());
+        }).exceptionally(e -> "Erreur lors de la récupération de l'entité : " + describe(e));
     }
 
     @ToolSpec(name = "getDetailedEntityInfo", desc = "Retourne des informations détaillées sur une entité donnée son UUID dans le monde Minecraft. Si l'entité n'est pas trouvée, retourne un message d'erreur.")
     public String getDetailedEntityInfo(@ToolProperty(name = "entityId", desc = "UUID de l'entité", required = true) String entityId) {
-        try {
-            return callSync(() -> {
-                var uuid = UUID.fromString(entityId);
-                for (var world : Bukkit.getWorlds()) {
-                    var entity = world.getEntity(uuid);
-                    if (entity != null) {
-                        StringBuilder sb = new StringBuilder();
-                        sb.append("Type d'entité: ").append(entity.getType().name()).append("\n");
-                        sb.append("Position: ").append(MinecraftMapper.mapLocationToString(entity.getLocation())).append("\n");
-                        sb.append("Santé: ").append(entity instanceof org.bukkit.entity.LivingEntity le ? le.getHealth() : "N/A").append("\n");
-                        sb.append("Nom personnalisé: ").append(entity.customName() != null ? entity.customName() : "N/A").append("\n");
-                        sb.append("Est vivant: ").append(entity.isDead() ? "Non" : "Oui").append("\n");
-                        return sb.toString();
-                    }
-                }
-                return "Entité non trouvée";
-            });
-        }
-        catch (Exception e) {
-            return "Erreur lors de la récupération de l'entité : " + e.getMessage();
+        return getDetailedEntityInfoAsync(entityId).join();
+    }
+
+    public CompletableFuture<String> getDetailedEntityInfoAsync(String entityId) {
+        WorldSnapshot.EntityState tracked = trackedEntity(entityId);
+        if (tracked != null) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Type d'entité: ").append(tracked.getType()).append("\n");
+            sb.append("Position: ").append(MinecraftMapper.mapLocationToString(tracked.getLocation())).append("\n");
+            sb.append("Santé: ").append(Double.isNaN(tracked.getHealth()) ? "N/A" : tracked.getHealth()).append("\n");
+            sb.append("Nom personnalisé: ").append(tracked.getCustomName() != null ? tracked.getCustomName() : "N/A").append("\n");
+            sb.append("Est vivant: ").append(tracked.isDead() || !tracked.isValid() ? "Non" : "Oui").append("\n");
+            return CompletableFuture.completedFuture(sb.toString());
         }
+        return callAsync(() -> {
+            var entity = findEntity(UUID.fromString(entityId));
+            if (entity == null) {
+                return "Entité non trouvée";
+            }
+            StringBuilder sb = new StringBuilder();
+            sb.append("Type d'entité: ").append(entity.getType().name()).append("\n");
+            sb.append("Position: ").append(MinecraftMapper.mapLocationToString(entity.getLocation())).append("\n");
+            sb.append("Santé: ").append(entity instanceof LivingEntity le ? le.getHealth() : "N/A").append("\n");
+            sb.append("Nom personnalisé: ").append(entity.customName() != null ? entity.customName() : "N/A").append("\n");
+            sb.append("Est vivant: ").append(entity.isDead() ? "Non" : "Oui").append("\n");
+            return sb.toString();
+        }).exceptionally(e -> "Erreur lors de la récupération de l'entité : " + describe(e));
     }
 
     @ToolSpec(name = "getAllEntityIdsInWorld", desc = "Retourne une liste des UUIDs de toutes les entités dans un monde donné. Si le monde n'est pas trouvé, retourne un message d'erreur.")
     public List<String> getAllEntityIdsInWorld(@ToolProperty(name = "worldName", desc = "Nom du monde", required = true) String worldName) {
-        try {
-            return callSync(() -> {
-                var world = Bukkit.getWorld(worldName);
+        return getAllEntityIdsInWorldAsync(worldName).join();
+    }
+
+    public CompletableFuture<List<String>> getAllEntityIdsInWorldAsync(String worldName) {
+        return callAsync(() -> {
+            var world = Bukkit.getWorld(worldName);
+            if (world == null) {
+                return List.of("Monde non trouvé");
+            }
+            var entities = world.getEntities();
+            return List.copyOf(entities.stream().map(e -> e.getUniqueId().toString()).toList());
+        }).exceptionally(e -> List.of("Erreur lors de la récupération des entités : " + describe(e)));
+    }
+
+    @ToolSpec(name = "batchLookup", desc = "Exécute plusieurs recherches en un seul appel et retourne une ligne 'requête => résultat' par recherche. "
+            + "Requêtes séparées par ';' : players (joueurs en ligne et positions), player:<nom>, entity:<uuid>, "
+            + "near:<x,y,z,world>[,rayon], nearplayer:<nom>[,rayon], world:<monde>. "
+            + "Les entités sont décrites sous la forme 'uuid TYPE x,y,z'. À préférer aux appels successifs des autres outils.")
+    public String batchLookup(@ToolProperty(name = "queries", desc = "Recherches séparées par ';', par exemple players;nearplayer:Steve,16;entity:<uuid>", required = true) String queries) {
+        return batchLookupAsync(queries).join();
+    }
+
+    /**
+     * Résout toutes les recherches de {@code queries} dans une seule tâche du thread principal. Une recherche
+     * invalide produit sa propre ligne d'erreur sans faire échouer les autres.
+     */
+    public CompletableFuture<String> batchLookupAsync(String queries) {
+        if (queries == null || queries.isBlank()) {
+            return CompletableFuture.completedFuture("Erreur: aucune recherche");
+        }
+        List<String> parsed = new ArrayList<>();
+        for (String query : queries.split(";")) {
+            String trimmed = query.trim();
+            if (!trimmed.isEmpty()) {
+                parsed.add(trimmed);
+            }
+        }
+        if (parsed.size() > MAX_BATCH_QUERIES) {
+            return CompletableFuture.completedFuture("Erreur: au plus " + MAX_BATCH_QUERIES + " recherches par appel (" + parsed.size() + " reçues)");
+        }
+        return callAsync(() -> {
+            StringBuilder sb = new StringBuilder();
+            for (String query : parsed) {
+                sb.append(query).append(" => ");
+                try {
+                    sb.append(lookup(query));
+                } catch (RuntimeException e) {
+                    sb.append("Erreur: ").append(e.getMessage());
+                }
+                sb.append('\n');
+            }
+            return sb.toString();
+        }).exceptionally(e -> "Erreur lors de la recherche groupée : " + describe(e));
+    }
+
+    /**
+     * Thread principal : résout une recherche du batch.
+     */
+    private static String lookup(String query) {
+        int colon = query.indexOf(':');
+        String kind = (colon < 0 ? query : query.substring(0, colon)).trim().toLowerCase(Locale.ROOT);
+        String arg = colon < 0 ? "" : query.substring(colon + 1).trim();
+        switch (kind) {
+            case "players" -> {
+                StringJoiner joiner = new StringJoiner(" | ");
+                for (Player player : Bukkit.getOnlinePlayers()) {
+                    joiner.add(player.getName() + " " + compactLocation(player.getLocation()));
+                }
+                return joiner.length() == 0 ? "aucun joueur en ligne" : joiner.toString();
+            }
+            case "player" -> {
+                Player player = Bukkit.getPlayerExact(arg);
+                if (player == null) {
+                    return "Joueur non trouvé";
+                }
+                return player.getUniqueId() + " " + MinecraftMapper.mapLocationToString(player.getLocation())
+                        + " santé=" + player.getHealth() + " nourriture=" + player.getFoodLevel();
+            }
+            case "entity" -> {
+                var entity = findEntity(UUID.fromString(arg));
+                return entity == null ? "Entité non trouvée" : compactEntity(entity);
+            }
+            case "near" -> {
+                String[] parts = arg.split(",");
+                if (parts.length != 4 && parts.length != 5) {
+                    throw new IllegalArgumentException("format attendu near:x,y,z,world[,rayon]");
+                }
+                int radius = parts.length == 5 ? Integer.parseInt(parts[4].trim()) : DEFAULT_RADIUS;
+                Location location = MinecraftMapper.mapStringToLocation(String.join(",", parts[0], parts[1], parts[2], parts[3]));
+                return compactEntities(location.getWorld().getNearbyEntities(location, radius, radius, radius));
+            }
+            case "nearplayer" -> {
+                int comma = arg.indexOf(',');
+                String name = comma < 0 ? arg : arg.substring(0, comma).trim();
+                int radius = comma < 0 ? DEFAULT_RADIUS : Integer.parseInt(arg.substring(comma + 1).trim());
+                Player player = Bukkit.getPlayerExact(name);
+                if (player == null) {
+                    return "Joueur non trouvé";
+                }
+                return compactEntities(player.getNearbyEntities(radius, radius, radius));
+            }
+            case "world" -> {
+                World world = Bukkit.getWorld(arg);
                 if (world == null) {
-                    return List.of("Monde non trouvé");
+                    return "Monde non trouvé";
                 }
-                var entities = world.getEntities();
-                return List.copyOf(entities.stream().map(e -> e.getUniqueId().toString()).toList());
-            });
-        } catch (Exception e) {
-            return List.of("Erreur lors de la récupération des entités : " + e.getMessage());
+                return compactEntities(world.getEntities());
+            }
+            default -> throw new IllegalArgumentException("recherche inconnue '" + kind + "'");
         }
     }
+
+    /**
+     * Thread principal : entité de cet UUID dans l'un des mondes chargés, ou null.
+     */
+    private static Entity findEntity(UUID uuid) {
+        for (var world : Bukkit.getWorlds()) {
+            var entity = world.getEntity(uuid);
+            if (entity != null) {
+                return entity;
+            }
+        }
+        return null;
+    }
+
+    private static String compactEntities(Collection<? extends Entity> entities) {
+        StringJoiner joiner = new StringJoiner(" | ");
+        int listed = 0;
+        int total = 0;
+        for (Entity entity : entities) {
+            total++;
+            if (listed < MAX_BATCH_ENTITIES) {
+                joiner.add(compactEntity(entity));
+                listed++;
+            }
+        }
+        if (total == 0) {
+            return "aucune entité";
+        }
+        return total > listed ? joiner + " | ... (" + (total - listed) + " de plus)" : joiner.toString();
+    }
+
+    private static String compactEntity(Entity entity) {
+        return entity.getUniqueId() + " " + entity.getType().name() + " " + compactLocation(entity.getLocation());
+    }
+
+    private static String compactLocation(Location location) {
+        return String.format(Locale.ROOT, "%.1f,%.1f,%.1f,%s",
+                location.getX(), location.getY(), location.getZ(), location.getWorld().getName());
+    }
 }
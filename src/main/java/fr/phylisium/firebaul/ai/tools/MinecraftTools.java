@@ -1,190 +1,109 @@
 package fr.phylisium.firebaul.ai;
 
 import fr.phylisium.firebaul.Firebaul;
+import fr.phylisium.firebaul.Tasks;
 import io.github.ollama4j.tools.annotations.ToolProperty;
 import io.github.ollama4j.tools.annotations.ToolSpec;
 import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitScheduler;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
+import java.util.logging.Logger;
 
 @SuppressWarnings("unused")
 public class MinecraftTools {
+    // partagé entre instances : le cache LRU survit aux rafales de commandes de l'agent
+    private static final CommandSanitizer SANITIZER = CommandSanitizer.withDefaultRules();
+
+    private static final String SNAPSHOT_UNAVAILABLE = "Erreur: état du serveur indisponible";
+
     public MinecraftTools() {
     }
 
+    /**
+     * État publié par {@link WorldSnapshots} ; les outils en lecture seule le consultent plutôt que
+     * d'interroger Bukkit hors du thread principal.
+     */
+    private static WorldSnapshot snapshotOrNull(Logger logger) {
+        try {
+            return WorldSnapshots.current();
+        } catch (RuntimeException e) {
+            if (logger != null) logger.log(Level.WARNING, "[Tools] world snapshot unavailable", e);
+            return null;
+        }
+    }
+
     @ToolSpec(desc = "Execute une commande sur le serveur Minecraft et retourne le résultat sous forme de chaîne de caractères.")
     public String executeCommand(
             @ToolProperty(name = "command", desc = "La commande à exécuter", required = true) String command) {
+        return executeCommandAsync(command).join();
+    }
+
+    /**
+     * Variante non bloquante de {@link #executeCommand} : le future se complète lorsque le thread
+     * principal a exécuté la commande, ou avec un message d'erreur au-delà de scheduler.call_timeout_ms
+     * (la commande n'est alors plus exécutée si elle attendait encore son tour). Ne se complète jamais
+     * exceptionnellement.
+     */
+    public CompletableFuture<String> executeCommandAsync(String command) {
         var plugin = Firebaul.getInstance();
         if (plugin == null) {
-            return "Erreur: Firebaul instance non initialisée";
+            return CompletableFuture.completedFuture("Erreur: Firebaul instance non initialisée");
+        }
+
+        if (command == null || command.isBlank()) {
+            return CompletableFuture.completedFuture("Erreur: commande vide");
         }
 
         var logger = plugin.getLogger();
 
-        String sanitizedCommand = command;
+        String sanitizedCommand;
         try {
-            if (sanitizedCommand != null && sanitizedCommand.toLowerCase().startsWith("give ")) {
-                java.util.regex.Matcher m = java.util.regex.Pattern.compile("^give\\s+(\\S+)\\s+(.+)$", java.util.regex.Pattern.CASE_INSENSITIVE).matcher(sanitizedCommand);
-                if (m.find()) {
-                    String target = m.group(1);
-                    String rest = m.group(2);
-
-                    // Extraire token item (avant '{' si présent, sinon premier token)
-                    int braceIndex = rest.indexOf('{');
-                    String itemToken;
-                    String remainder = "";
-                    if (braceIndex >= 0) {
-                        itemToken = rest.substring(0, braceIndex);
-                        remainder = rest.substring(braceIndex); // inclut '{'
-                    } else {
-                        int spaceIdx = rest.indexOf(' ');
-                        if (spaceIdx >= 0) {
-                            itemToken = rest.substring(0, spaceIdx);
-                            remainder = rest.substring(spaceIdx); // inclut leading space
-                        } else {
-                            itemToken = rest;
-                            remainder = "";
+            sanitizedCommand = SANITIZER.sanitize(command);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "[Tools] failed to sanitize command, executing raw: " + command, e);
+            sanitizedCommand = command;
+        }
+
+        final String execCommand = sanitizedCommand;
+        // une seule ligne par commande, écrite une fois le résultat connu
+        final String logged = execCommand.equals(command) ? "'" + execCommand + "'" : "'" + command + "' (sanitized: '" + execCommand + "')";
+
+        return Tasks.callSyncWithDeadline(() -> Bukkit.getServer().dispatchCommand(Bukkit.getConsoleSender(), execCommand))
+                .handle((res, error) -> {
+                    if (error == null) {
+                        if (res) {
+                            logger.info("[Tools] executeCommand " + logged + " -> ok");
+                            return "Commande exécutée: " + execCommand;
                         }
+                        logger.warning("[Tools] executeCommand " + logged + " -> returned false");
+                        return "La commande a été exécutée mais a retourné false (échec ou commande inconnue): " + execCommand;
                     }
-
-                    // Ajouter namespace minecraft: si absent
-                    if (!itemToken.contains(":")) {
-                        itemToken = "minecraft:" + itemToken;
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (cause instanceof TimeoutException) {
+                        logger.warning("[Tools] executeCommand " + logged + " -> timeout");
+                        return "Erreur: l'exécution de la commande a expiré (timeout).";
                     }
-
-                    // Si le NBT est présent avant le count (ex: diamond_sword{...} 1),
-                    // détecter la fin du NBT et repositionner le count avant le NBT.
-                    String trailing = "";
-                    String countToken = null;
-                    if (!remainder.isEmpty() && remainder.charAt(0) == '{') {
-                        int depth = 0;
-                        int endIdx = -1;
-                        for (int i = 0; i < remainder.length(); i++) {
-                            char ch = remainder.charAt(i);
-                            if (ch == '{') depth++;
-                            else if (ch == '}') {
-                                depth--;
-                                if (depth == 0) {
-                                    endIdx = i;
-                                    break;
-                                }
-                            }
-                        }
-                        if (endIdx != -1) {
-                            String nbt = remainder.substring(0, endIdx + 1);
-                            trailing = remainder.substring(endIdx + 1).trim();
-
-                            if (!trailing.isEmpty()) {
-                                String[] parts = trailing.split("\\s+", 2);
-                                if (parts.length > 0 && parts[0].matches("\\d+")) {
-                                    countToken = parts[0];
-                                    // keep possible extra after count (rare)
-                                    trailing = parts.length > 1 ? parts[1] : "";
-                                }
-                            }
-
-                            // sanitize ids d'enchantement à l'intérieur du NBT (id:sharpness -> id:"minecraft:sharpness")
-                            java.util.regex.Pattern idPattern = java.util.regex.Pattern.compile("(?<![:\"])id:([A-Za-z0-9_]+)", java.util.regex.Pattern.CASE_INSENSITIVE);
-                            java.util.regex.Matcher idMatcher = idPattern.matcher(nbt);
-                            if (idMatcher.find()) {
-                                nbt = idMatcher.replaceAll("id:\"minecraft:$1\"");
-                            }
-
-                            if (countToken != null) {
-                                // reorder: item count nbt [trailing]
-                                StringBuilder newRest = new StringBuilder();
-                                newRest.append(itemToken).append(' ').append(countToken).append(' ').append(nbt);
-                                if (!trailing.isEmpty()) newRest.append(' ').append(trailing);
-                                sanitizedCommand = "give " + target + " " + newRest;
-                            } else {
-                                // keep as item nbt ... (no count)
-                                StringBuilder newRest = new StringBuilder();
-                                newRest.append(itemToken).append(nbt);
-                                if (!trailing.isEmpty()) newRest.append(' ').append(trailing);
-                                sanitizedCommand = "give " + target + " " + newRest;
-                            }
-
-                        } else {
-                            // malformed NBT, just attempt basic id replacement on remainder
-                            java.util.regex.Pattern idPattern = java.util.regex.Pattern.compile("(?<![:\"])id:([A-Za-z0-9_]+)", java.util.regex.Pattern.CASE_INSENSITIVE);
-                            java.util.regex.Matcher idMatcher = idPattern.matcher(remainder);
-                            if (idMatcher.find()) {
-                                remainder = idMatcher.replaceAll("id:\"minecraft:$1\"");
-                            }
-                            sanitizedCommand = "give " + target + " " + itemToken + remainder;
-                        }
-                    } else {
-                        // pas de NBT en début, juste appliquer remplacement d'id si nécessaire
-                        if (!remainder.isEmpty()) {
-                            java.util.regex.Pattern idPattern = java.util.regex.Pattern.compile("(?<![:\"])id:([A-Za-z0-9_]+)", java.util.regex.Pattern.CASE_INSENSITIVE);
-                            java.util.regex.Matcher idMatcher = idPattern.matcher(remainder);
-                            if (idMatcher.find()) {
-                                remainder = idMatcher.replaceAll("id:\"minecraft:$1\"");
-                            }
-                        }
-                        sanitizedCommand = "give " + target + " " + itemToken + remainder;
+                    if (cause instanceof CancellationException) {
+                        logger.warning("[Tools] executeCommand " + logged + " -> cancelled");
+                        return "Erreur: l'exécution de la commande a été annulée.";
                     }
-
-                    if (!sanitizedCommand.equals(command)) {
-                        logger.info("[Tools] executeCommand sanitized: '" + command + "' -> '" + sanitizedCommand + "'");
+                    if (cause instanceof RejectedExecutionException) {
+                        logger.warning("[Tools] executeCommand " + logged + " -> rejected (shutting down)");
+                        return "Erreur: le serveur est en cours d'arrêt, commande non exécutée.";
                     }
-                }
-            }
-        } catch (Throwable t) {
-            logger.log(Level.WARNING, "[Tools] failed to sanitize command, executing raw: " + command, t);
-            sanitizedCommand = command;
-        }
-
-        logger.info("[Tools] executeCommand requested: " + sanitizedCommand);
-
-        final String execCommand = sanitizedCommand;
-
-        var scheduler = Bukkit.getScheduler();
-        var future = scheduler.callSyncMethod(plugin, () -> {
-            // Exécuter la commande sur le thread principal et renvoyer si elle a réussi
-            plugin.getLogger().info("[Tools] executing command on main thread: " + execCommand);
-            boolean success = Bukkit.getServer().dispatchCommand(Bukkit.getConsoleSender(), execCommand);
-            plugin.getLogger().info("[Tools] dispatchCommand returned: " + success + " for command: " + execCommand);
-            return success;
-        });
-
-        try {
-            Boolean res = future.get(5, TimeUnit.SECONDS);
-            logger.info("[Tools] future.get() returned for command '" + execCommand + "': " + res);
-            if (res != null) {
-                boolean ok = res;
-                if (ok) {
-                    logger.info("[Tools] Command succeeded: " + execCommand);
-                    return "Commande exécutée: " + execCommand;
-                } else {
-                    logger.warning("[Tools] Command executed but returned false: " + execCommand);
-                    return "La commande a été exécutée mais a retourné false (échec ou commande inconnue): " + execCommand;
-                }
-            }
-            logger.warning("[Tools] Command returned null result: " + execCommand);
-            return "Commande exécutée (résultat non standard): " + res;
-        } catch (TimeoutException te) {
-            logger.log(Level.WARNING, "[Tools] executeCommand timeout for command: " + execCommand, te);
-            return "Erreur: l'exécution de la commande a expiré (timeout).";
-        } catch (InterruptedException ie) {
-            Thread.currentThread().interrupt();
-            logger.log(Level.WARNING, "[Tools] executeCommand interrupted for command: " + execCommand, ie);
-            return "Erreur: l'exécution de la commande a été interrompue.";
-        } catch (java.util.concurrent.ExecutionException ee) {
-            Throwable cause = ee.getCause();
-            logger.log(Level.WARNING, "[Tools] executeCommand execution exception for command: " + execCommand, ee);
-            return "Erreur lors de l'exécution de la commande (cause): " + (cause == null ? ee.getMessage() : cause.toString());
-        } catch (Exception e) {
-            logger.log(Level.WARNING, "[Tools] executeCommand unexpected exception for command: " + execCommand, e);
-            return "Erreur lors de l'exécution de la commande: " + e.getMessage();
-        }
+                    logger.log(Level.WARNING, "[Tools] executeCommand " + logged + " -> exception", cause);
+                    return "Erreur lors de l'exécution de la commande (cause): " + cause;
+                });
     }
 
     @ToolSpec(desc = "Retourne la liste des joueurs en ligne sur le serveur Minecraft.")
@@ -193,8 +112,12 @@ public class MinecraftTools {
         var logger = plugin == null ? null : plugin.getLogger();
         if (logger != null) logger.info("[Tools] getOnlinePlayers called");
 
+        WorldSnapshot snapshot = snapshotOrNull(logger);
+        if (snapshot == null) {
+            return List.of(SNAPSHOT_UNAVAILABLE);
+        }
         List<String> playerNames = new ArrayList<>();
-        for (Player player : Bukkit.getOnlinePlayers()) {
+        for (WorldSnapshot.PlayerState player : snapshot.getPlayers()) {
             playerNames.add(player.getName());
         }
 
@@ -209,7 +132,11 @@ public class MinecraftTools {
         var logger = plugin == null ? null : plugin.getLogger();
         if (logger != null) logger.info("[Tools] getPlayerUUID called for: " + playerName);
 
-        Player player = Bukkit.getPlayerExact(playerName);
+        WorldSnapshot snapshot = snapshotOrNull(logger);
+        if (snapshot == null) {
+            return SNAPSHOT_UNAVAILABLE;
+        }
+        WorldSnapshot.PlayerState player = snapshot.getPlayer(playerName);
         if (player != null) {
             String uuid = player.getUniqueId().toString();
             if (logger != null) logger.info("[Tools] getPlayerUUID found: " + uuid);
@@ -228,7 +155,11 @@ public class MinecraftTools {
         var logger = plugin == null ? null : plugin.getLogger();
         if (logger != null) logger.info("[Tools] getPlayerLocation called for: " + playerName);
 
-        Player player = Bukkit.getPlayerExact(playerName);
+        WorldSnapshot snapshot = snapshotOrNull(logger);
+        if (snapshot == null) {
+            return SNAPSHOT_UNAVAILABLE;
+        }
+        WorldSnapshot.PlayerState player = snapshot.getPlayer(playerName);
         if (player != null) {
             String loc = player.getLocation().toString();
             if (logger != null) logger.info("[Tools] getPlayerLocation: " + loc);
@@ -245,10 +176,11 @@ public class MinecraftTools {
         var logger = plugin == null ? null : plugin.getLogger();
         if (logger != null) logger.info("[Tools] getWorldNames called");
 
-        List<String> worldNames = new ArrayList<>();
-        for (var world : Bukkit.getWorlds()) {
-            worldNames.add(world.getName());
+        WorldSnapshot snapshot = snapshotOrNull(logger);
+        if (snapshot == null) {
+            return List.of(SNAPSHOT_UNAVAILABLE);
         }
+        List<String> worldNames = snapshot.getWorldNames();
 
         if (logger != null) logger.info("[Tools] getWorldNames returning " + worldNames.size() + " worlds");
         return worldNames;
@@ -262,7 +194,11 @@ public class MinecraftTools {
         var logger = plugin == null ? null : plugin.getLogger();
         if (logger != null) logger.info("[Tools] getPlayerCoordinates called for: " + playerName);
 
-        Player player = Bukkit.getPlayerExact(playerName);
+        WorldSnapshot snapshot = snapshotOrNull(logger);
+        if (snapshot == null) {
+            return SNAPSHOT_UNAVAILABLE;
+        }
+        WorldSnapshot.PlayerState player = snapshot.getPlayer(playerName);
         if (player != null) {
             var loc = player.getLocation();
             String coords = String.format("x=%.2f, y=%.2f, z=%.2f, world=%s",
@@ -283,8 +219,12 @@ public class MinecraftTools {
         var logger = plugin == null ? null : plugin.getLogger();
         if (logger != null) logger.info("[Tools] teleportPlayer called for: " + playerName + " -> " + locationStr);
 
-        Player player = Bukkit.getPlayerExact(playerName);
-        if (player != null) {
+        // validation sur la photographie ; joueur et monde sont résolus à nouveau sur le thread principal
+        WorldSnapshot snapshot = snapshotOrNull(logger);
+        if (snapshot == null) {
+            return SNAPSHOT_UNAVAILABLE;
+        }
+        if (snapshot.getPlayer(playerName) != null) {
             String[] parts = locationStr.split(",");
             if (parts.length != 4) {
                 if (logger != null) logger.warning("[Tools] teleportPlayer: invalid location format: " + locationStr);
@@ -295,16 +235,19 @@ public class MinecraftTools {
                 double y = Double.parseDouble(parts[1]);
                 double z = Double.parseDouble(parts[2]);
                 String worldName = parts[3];
-                var world = Bukkit.getWorld(worldName);
-                if (world == null) {
+                if (!snapshot.hasWorld(worldName)) {
                     if (logger != null) logger.warning("[Tools] teleportPlayer: world not found: " + worldName);
                     return "Monde non trouvé: " + worldName;
                 }
-                var location = new org.bukkit.Location(world, x, y, z);
-                BukkitScheduler scheduler = Bukkit.getScheduler();
-                // use scheduler to run teleport on main thread
-                scheduler.runTask(Firebaul.getInstance(), () -> {
-                    player.teleport(location);
+                // teleport on main thread, batched with the other tick work
+                Tasks.runSync(() -> {
+                    Player player = Bukkit.getPlayerExact(playerName);
+                    var world = Bukkit.getWorld(worldName);
+                    if (player == null || world == null) {
+                        if (logger != null) logger.warning("[Tools] teleportPlayer: " + playerName + " or " + worldName + " gone before teleport");
+                        return;
+                    }
+                    player.teleport(new org.bukkit.Location(world, x, y, z));
                     if (logger != null) logger.info("[Tools] teleportPlayer: teleported " + playerName + " to " + locationStr);
                 });
 
@@ -330,7 +273,11 @@ public class MinecraftTools {
         var logger = plugin == null ? null : plugin.getLogger();
         if (logger != null) logger.info("[Tools] getPlayerInfo called for: " + playerName);
 
-        Player player = Bukkit.getPlayerExact(playerName);
+        WorldSnapshot snapshot = snapshotOrNull(logger);
+        if (snapshot == null) {
+            return SNAPSHOT_UNAVAILABLE;
+        }
+        WorldSnapshot.PlayerState player = snapshot.getPlayer(playerName);
         if (player != null) {
             StringBuilder info = new StringBuilder();
             info.append("Nom: ").append(player.getName()).append("\n");
@@ -338,6 +285,7 @@ public class MinecraftTools {
             info.append("Santé: ").append(player.getHealth()).append("\n");
             info.append("Nourriture: ").append(player.getFoodLevel()).append("\n");
             info.append("Position: ").append(player.getLocation().toString()).append("\n");
+            info.append("Âge des données: ").append(snapshot.ageMillis()).append(" ms\n");
             if (logger != null) logger.info("[Tools] getPlayerInfo: returning info for " + playerName);
             return info.toString();
         } else {
@@ -346,33 +294,56 @@ public class MinecraftTools {
         }
     }
 
-    @ToolSpec(desc = "Retourne les types de blocks dans le chunk où se trouve un joueur donné son nom. Si le joueur n'est pas trouvé, retourne un message d'erreur.")
+    @ToolSpec(desc = "Retourne un résumé des blocs du chunk où se trouve un joueur donné son nom : une ligne par section de 16 blocs de haut "
+            + "avec les matériaux les plus présents et leur nombre. Si le joueur n'est pas trouvé, retourne un message d'erreur.")
     public List<String> getPlayerChunkBlocks(
             @ToolProperty(name = "player", desc = "Nom du joueur", required = true) String playerName) {
+        return getPlayerChunkBlocksAsync(playerName).join();
+    }
+
+    /**
+     * Variante non bloquante de {@link #getPlayerChunkBlocks} : le thread principal ne fait que
+     * photographier le chunk, le parcours a lieu ensuite hors du thread principal.
+     */
+    public CompletableFuture<List<String>> getPlayerChunkBlocksAsync(String playerName) {
         var plugin = Firebaul.getInstance();
         var logger = plugin == null ? null : plugin.getLogger();
         if (logger != null) logger.info("[Tools] getPlayerChunkBlocks called for: " + playerName);
 
-        Player player = Bukkit.getPlayerExact(playerName);
-        List<String> blockTypes = new ArrayList<>();
-        if (player != null) {
-            var chunk = player.getLocation().getChunk();
-            // warn: this can be expensive
-            if (logger != null) logger.info("[Tools] getPlayerChunkBlocks: scanning chunk at " + player.getLocation());
-            for (int x = 0; x < 16; x++) {
-                for (int y = 0; y < 256; y++) {
-                    for (int z = 0; z < 16; z++) {
-                        var block = chunk.getBlock(x, y, z);
-                        blockTypes.add(block.getType().toString());
+        return Tasks.callSyncWithDeadline(() -> {
+                    Player player = Bukkit.getPlayerExact(playerName);
+                    if (player == null) {
+                        return null;
                     }
-                }
-            }
-            if (logger != null) logger.info("[Tools] getPlayerChunkBlocks: found " + blockTypes.size() + " blocks");
-            return blockTypes;
-        } else {
-            if (logger != null) logger.warning("[Tools] getPlayerChunkBlocks: player not found " + playerName);
-            blockTypes.add("Joueur non trouvé");
-            return blockTypes;
+                    World world = player.getWorld();
+                    ChunkSnapshot chunk = player.getLocation().getChunk().getChunkSnapshot(false, false, false);
+                    return new ChunkScan(chunk, world.getMinHeight(), world.getMaxHeight());
+                })
+                .thenApplyAsync(scan -> {
+                    if (scan == null) {
+                        if (logger != null) logger.warning("[Tools] getPlayerChunkBlocks: player not found " + playerName);
+                        return List.of("Joueur non trouvé");
+                    }
+                    List<String> summary = ChunkBlockSummary.summarize(scan.chunk, scan.minHeight, scan.maxHeight);
+                    if (logger != null) logger.info("[Tools] getPlayerChunkBlocks: summarized " + (summary.size() - 1) + " lines");
+                    return summary;
+                })
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (logger != null) logger.log(Level.WARNING, "[Tools] getPlayerChunkBlocks failed for " + playerName, cause);
+                    return List.of("Erreur lors de la lecture du chunk : " + cause);
+                });
+    }
+
+    private static final class ChunkScan {
+        final ChunkSnapshot chunk;
+        final int minHeight;
+        final int maxHeight;
+
+        ChunkScan(ChunkSnapshot chunk, int minHeight, int maxHeight) {
+            this.chunk = chunk;
+            this.minHeight = minHeight;
+            this.maxHeight = maxHeight;
         }
     }
 }
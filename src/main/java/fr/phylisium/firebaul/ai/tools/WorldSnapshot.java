@@ -0,0 +1,228 @@
+package fr.phylisium.firebaul.ai;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Photographie immuable de l'état du monde utile aux outils en lecture seule : mondes chargés, joueurs
+ * en ligne et entités à proximité d'un joueur. Capturée sur le thread principal ({@link #capture}), elle se lit
+ * ensuite sans verrou depuis n'importe quel thread ; les positions sont des copies.
+ */
+public final class WorldSnapshot {
+    private final long capturedAtNanos;
+    private final int tick;
+    private final List<String> worldNames;
+    private final Set<String> worldKeys;
+    private final List<PlayerState> players;
+    private final Map<String, PlayerState> playersByName;
+    private final Map<UUID, EntityState> entities;
+
+    private WorldSnapshot(long capturedAtNanos, int tick, List<String> worldNames, List<PlayerState> players,
+                          Map<UUID, EntityState> entities) {
+        this.capturedAtNanos = capturedAtNanos;
+        this.tick = tick;
+        this.worldNames = Collections.unmodifiableList(worldNames);
+        Set<String> keys = new HashSet<>();
+        for (String worldName : worldNames) {
+            keys.add(worldName.toLowerCase(Locale.ROOT));
+        }
+        this.worldKeys = keys;
+        this.players = Collections.unmodifiableList(players);
+        Map<String, PlayerState> byName = new HashMap<>();
+        for (PlayerState player : players) {
+            byName.put(player.name.toLowerCase(Locale.ROOT), player);
+        }
+        this.playersByName = byName;
+        this.entities = Collections.unmodifiableMap(entities);
+    }
+
+    /**
+     * Thread principal : capture les mondes chargés, les joueurs en ligne et les entités (hors joueurs)
+     * dans un rayon de {@code entityRadius} blocs autour de chacun d'eux.
+     */
+    public static WorldSnapshot capture(double entityRadius) {
+        List<World> worlds = Bukkit.getWorlds();
+        List<String> worldNames = new ArrayList<>(worlds.size());
+        for (World world : worlds) {
+            worldNames.add(world.getName());
+        }
+        Collection<? extends Player> online = Bukkit.getOnlinePlayers();
+        List<PlayerState> players = new ArrayList<>(online.size());
+        Map<UUID, EntityState> entities = new LinkedHashMap<>();
+        for (Player player : online) {
+            players.add(new PlayerState(player));
+            if (entityRadius <= 0) {
+                continue;
+            }
+            for (Entity entity : player.getNearbyEntities(entityRadius, entityRadius, entityRadius)) {
+                if (!(entity instanceof Player)) {
+                    entities.computeIfAbsent(entity.getUniqueId(), id -> new EntityState(entity));
+                }
+            }
+        }
+        return new WorldSnapshot(System.nanoTime(), Bukkit.getCurrentTick(), worldNames, players, entities);
+    }
+
+    public long ageMillis() {
+        return (System.nanoTime() - capturedAtNanos) / 1_000_000L;
+    }
+
+    /**
+     * Tick serveur de la capture.
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    public List<String> getWorldNames() {
+        return worldNames;
+    }
+
+    /**
+     * Indique si un monde de ce nom (sans tenir compte de la casse, comme {@link Bukkit#getWorld(String)})
+     * était chargé à la capture.
+     */
+    public boolean hasWorld(String name) {
+        return name != null && worldKeys.contains(name.toLowerCase(Locale.ROOT));
+    }
+
+    public List<PlayerState> getPlayers() {
+        return players;
+    }
+
+    /**
+     * Joueur de ce nom (sans tenir compte de la casse), ou null s'il n'était pas en ligne à la capture.
+     */
+    public PlayerState getPlayer(String name) {
+        return name == null ? null : playersByName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Entité suivie de cet UUID, ou null si elle n'était à proximité d'aucun joueur à la capture.
+     */
+    public EntityState getEntity(UUID uuid) {
+        return entities.get(uuid);
+    }
+
+    public Collection<EntityState> getEntities() {
+        return entities.values();
+    }
+
+    public static final class PlayerState {
+        private final String name;
+        private final UUID uuid;
+        private final Location location;
+        private final double health;
+        private final int foodLevel;
+
+        private PlayerState(Player player) {
+            this.name = player.getName();
+            this.uuid = player.getUniqueId();
+            this.location = player.getLocation();
+            this.health = player.getHealth();
+            this.foodLevel = player.getFoodLevel();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public UUID getUniqueId() {
+            return uuid;
+        }
+
+        /**
+         * Copie de la position capturée.
+         */
+        public Location getLocation() {
+            return location.clone();
+        }
+
+        public double getHealth() {
+            return health;
+        }
+
+        public int getFoodLevel() {
+            return foodLevel;
+        }
+    }
+
+    public static final class EntityState {
+        private final UUID uuid;
+        private final String type;
+        private final Location location;
+        private final double health;
+        private final String customName;
+        private final boolean dead;
+        private final boolean valid;
+
+        private EntityState(Entity entity) {
+            this.uuid = entity.getUniqueId();
+            this.type = entity.getType().name();
+            this.location = entity.getLocation();
+            this.health = entity instanceof LivingEntity living ? living.getHealth() : Double.NaN;
+            Component name = entity.customName();
+            this.customName = name == null ? null : PlainTextComponentSerializer.plainText().serialize(name);
+            this.dead = entity.isDead();
+            this.valid = entity.isValid();
+        }
+
+        public UUID getUniqueId() {
+            return uuid;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * Copie de la position capturée.
+         */
+        public Location getLocation() {
+            return location.clone();
+        }
+
+        /**
+         * Santé, ou NaN pour une entité non vivante.
+         */
+        public double getHealth() {
+            return health;
+        }
+
+        public String getCustomName() {
+            return customName;
+        }
+
+        /**
+         * {@link Entity#isDead()} au moment de la capture.
+         */
+        public boolean isDead() {
+            return dead;
+        }
+
+        /**
+         * {@link Entity#isValid()} au moment de la capture (false si retirée du monde ou déchargée).
+         */
+        public boolean isValid() {
+            return valid;
+        }
+    }
+}
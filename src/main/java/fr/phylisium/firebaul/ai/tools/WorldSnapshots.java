@@ -0,0 +1,96 @@
+package fr.phylisium.firebaul.ai;
+
+import fr.phylisium.firebaul.Firebaul;
+import fr.phylisium.firebaul.Tasks;
+import org.bukkit.Bukkit;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publie une {@link WorldSnapshot} toutes les tools.snapshot.period_ticks ticks ; la publication est
+ * une simple écriture volatile, les outils la lisent sans verrou ni passage par le thread principal.
+ * <p>
+ * Fraîcheur : à 20 TPS, une photographie a au plus period_ticks ticks (500 ms avec la valeur par
+ * défaut de 10). Si le serveur ralentit au point qu'elle dépasse tools.snapshot.max_age_ms, ou avant
+ * la première publication, {@link #current()} en capture une nouvelle sur le thread principal (dans la
+ * limite de scheduler.call_timeout_ms) : un outil ne répond donc jamais avec un état plus vieux que
+ * max_age_ms.
+ */
+public final class WorldSnapshots {
+    private static final long DEFAULT_PERIOD_TICKS = 10;
+    private static final double DEFAULT_ENTITY_RADIUS = 32;
+    private static final long DEFAULT_MAX_AGE_MS = 2000;
+
+    private static volatile WorldSnapshot current;
+    private static volatile double entityRadius = DEFAULT_ENTITY_RADIUS;
+    private static volatile long maxAgeMillis = DEFAULT_MAX_AGE_MS;
+    private static volatile int taskId = -1;
+
+    private WorldSnapshots() {
+    }
+
+    /**
+     * Dernière photographie publiée, ou une capture fraîche si elle manque ou dépasse max_age_ms.
+     * Démarre la publication périodique au premier appel.
+     */
+    public static WorldSnapshot current() {
+        start();
+        WorldSnapshot snapshot = current;
+        if (snapshot != null && snapshot.ageMillis() <= maxAgeMillis) {
+            return snapshot;
+        }
+        return refresh().join();
+    }
+
+    /**
+     * Dernière photographie publiée si elle a moins de max_age_ms, sinon null ; ne capture jamais.
+     */
+    public static WorldSnapshot published() {
+        start();
+        WorldSnapshot snapshot = current;
+        return snapshot != null && snapshot.ageMillis() <= maxAgeMillis ? snapshot : null;
+    }
+
+    /**
+     * Capture et publie une photographie sur le thread principal.
+     */
+    public static CompletableFuture<WorldSnapshot> refresh() {
+        return Tasks.callSyncWithDeadline(WorldSnapshots::publish);
+    }
+
+    private static WorldSnapshot publish() {
+        WorldSnapshot snapshot = WorldSnapshot.capture(entityRadius);
+        current = snapshot;
+        return snapshot;
+    }
+
+    private static void start() {
+        if (taskId != -1) {
+            return;
+        }
+        synchronized (WorldSnapshots.class) {
+            if (taskId != -1) {
+                return;
+            }
+            var plugin = Firebaul.getInstance();
+            if (plugin == null) {
+                throw new IllegalStateException("Firebaul instance non initialisée");
+            }
+            var config = plugin.getConfig();
+            long period = Math.max(1L, config.getLong("tools.snapshot.period_ticks", DEFAULT_PERIOD_TICKS));
+            entityRadius = Math.max(0.0, config.getDouble("tools.snapshot.entity_radius", DEFAULT_ENTITY_RADIUS));
+            maxAgeMillis = Math.max(period * 50L, config.getLong("tools.snapshot.max_age_ms", DEFAULT_MAX_AGE_MS));
+            taskId = Bukkit.getScheduler().runTaskTimer(plugin, WorldSnapshots::publish, 0L, period).getTaskId();
+        }
+    }
+
+    public static void shutdown() {
+        synchronized (WorldSnapshots.class) {
+            if (taskId != -1) {
+                Bukkit.getScheduler().cancelTask(taskId);
+                taskId = -1;
+            }
+            current = null;
+        }
+    }
+}
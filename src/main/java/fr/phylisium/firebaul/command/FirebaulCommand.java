@@ -0,0 +1,105 @@
+package fr.phylisium.firebaul.command;
+
+import fr.phylisium.firebaul.Tasks;
+import fr.phylisium.firebaul.keyword.SpeechMetrics;
+import fr.phylisium.firebaul.keyword.SpeechRecognitionService;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Commande /firebaul :
+ * {@code stats [reset]} affiche (ou remet à zéro) les métriques du pipeline vocal,
+ * {@code reload [dossier]} recharge le modèle Vosk en arrière-plan (speech.model.dir par défaut).
+ * Enregistrée directement dans la CommandMap (un paper-plugin.yml ne déclare pas de commandes).
+ */
+public class FirebaulCommand extends Command {
+    public static final String STATS_PERMISSION = "firebaul.stats";
+    public static final String RELOAD_PERMISSION = "firebaul.reload";
+    private static final List<String> SUBCOMMANDS = List.of("stats", "reload");
+
+    private final SpeechRecognitionService speechService;
+
+    public FirebaulCommand(SpeechRecognitionService speechService) {
+        super("firebaul", "Firebaul administration", "/firebaul <stats [reset]|reload [model dir]>", List.of());
+        this.speechService = Objects.requireNonNull(speechService, "speechService");
+        // visible pour qui a l'une des deux permissions ; chaque sous-commande vérifie la sienne
+        setPermission(STATS_PERMISSION + ";" + RELOAD_PERMISSION);
+    }
+
+    @Override
+    public boolean execute(@NotNull CommandSender sender, @NotNull String label, @NotNull String[] args) {
+        if (!testPermission(sender)) {
+            return true;
+        }
+        String sub = args.length == 0 ? "" : args[0].toLowerCase(Locale.ROOT);
+        switch (sub) {
+            case "stats" -> stats(sender, args);
+            case "reload" -> reload(sender, args);
+            default -> sender.sendMessage(Component.text("Usage: " + getUsage(), NamedTextColor.RED));
+        }
+        return true;
+    }
+
+    private void stats(CommandSender sender, String[] args) {
+        if (!checkPermission(sender, STATS_PERMISSION)) {
+            return;
+        }
+        SpeechMetrics metrics = speechService.getMetrics();
+        if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+            metrics.reset();
+            sender.sendMessage(Component.text("Speech metrics reset", NamedTextColor.GREEN));
+            return;
+        }
+        sender.sendMessage(Component.text("[Firebaul] speech pipeline - model " + speechService.getModelState()
+                + ", " + speechService.getActiveSessionCount() + " active sessions", NamedTextColor.GOLD));
+        for (String line : metrics.snapshotLines()) {
+            sender.sendMessage(Component.text(line, NamedTextColor.GRAY));
+        }
+    }
+
+    private void reload(CommandSender sender, String[] args) {
+        if (!checkPermission(sender, RELOAD_PERMISSION)) {
+            return;
+        }
+        if (speechService.isModelLoading()) {
+            sender.sendMessage(Component.text("A model is already loading", NamedTextColor.YELLOW));
+            return;
+        }
+        File dir = args.length > 1 ? new File(args[1]) : speechService.getModelDirectory();
+        sender.sendMessage(Component.text("Loading Vosk model from " + dir.getPath() + " in the background...", NamedTextColor.GRAY));
+        speechService.loadModelAsync(dir).thenAccept(state -> Tasks.runSync(() -> sender.sendMessage(
+                Component.text("Vosk model reload finished: " + state,
+                        state == SpeechRecognitionService.ModelState.READY ? NamedTextColor.GREEN : NamedTextColor.RED))));
+    }
+
+    private boolean checkPermission(CommandSender sender, String permission) {
+        if (sender.hasPermission(permission)) {
+            return true;
+        }
+        sender.sendMessage(Component.text("You do not have permission to do that", NamedTextColor.RED));
+        return false;
+    }
+
+    @Override
+    public @NotNull List<String> tabComplete(@NotNull CommandSender sender, @NotNull String alias, @NotNull String[] args) {
+        List<String> candidates = args.length == 1 ? SUBCOMMANDS
+                : args.length == 2 && args[0].equalsIgnoreCase("stats") ? List.of("reset") : List.of();
+        String prefix = args.length == 0 ? "" : args[args.length - 1].toLowerCase(Locale.ROOT);
+        List<String> result = new ArrayList<>();
+        for (String candidate : candidates) {
+            if (candidate.startsWith(prefix)) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+}
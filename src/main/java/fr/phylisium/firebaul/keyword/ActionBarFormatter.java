@@ -1,62 +1,170 @@
 package fr.phylisium.firebaul;
 
+import fr.phylisium.firebaul.keyword.KeywordAction;
 import fr.phylisium.firebaul.keyword.KeywordRegistry;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
 
 import java.text.Normalizer;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Formatter responsable de sanitiser le texte et construire un Component Adventure
  * où seules les portions correspondant aux matches sont colorées.
+ * Le texte déjà propre (ASCII ou NFC, sans code couleur ni caractère de contrôle) traverse la
+ * sanitisation sans copie, et le dernier rendu de chaque joueur est conservé : une partielle
+ * identique à la précédente ne reconstruit rien.
  */
 public class ActionBarFormatter {
+    private final Map<UUID, Rendered> lastRendered = new ConcurrentHashMap<>();
+
     public String sanitizePreserveLength(String s) {
         if (s == null) return null;
-        StringBuilder sb = new StringBuilder(s.length());
-        for (int i = 0; i < s.length(); i++) {
-            char c = s.charAt(i);
-            int type = Character.getType(c);
-            if (type == Character.FORMAT || type == Character.PRIVATE_USE || type == Character.SURROGATE || type == Character.UNASSIGNED) { sb.append(' '); continue; }
-            if (c == '§') { sb.append(' '); continue; }
-            if (c == '&') {
-                if (i + 1 < s.length()) {
-                    char n = s.charAt(i + 1);
-                    char ln = Character.toLowerCase(n);
-                    boolean isCode = (ln >= '0' && ln <= '9') || (ln >= 'a' && ln <= 'f') || (ln >= 'k' && ln <= 'o') || ln == 'r';
-                    sb.append(' ');
-                    if (isCode) { sb.append(' '); i++; }
-                    continue;
-                } else { sb.append(' '); continue; }
+        int first = 0;
+        int n = s.length();
+        while (first < n && !needsReplacement(s.charAt(first))) {
+            first++;
+        }
+        if (first == n) {
+            // cas courant : rien à remplacer, pas de copie
+            return s;
+        }
+        char[] chars = s.toCharArray();
+        for (int i = first; i < n; i++) {
+            char c = chars[i];
+            if (!needsReplacement(c)) {
+                continue;
+            }
+            chars[i] = ' ';
+            if (c == '&' && i + 1 < n) {
+                char ln = Character.toLowerCase(chars[i + 1]);
+                boolean isCode = (ln >= '0' && ln <= '9') || (ln >= 'a' && ln <= 'f') || (ln >= 'k' && ln <= 'o') || ln == 'r';
+                if (isCode) { chars[i + 1] = ' '; i++; }
             }
-            if (Character.isISOControl(c)) { sb.append(' '); continue; }
-            sb.append(c);
         }
-        return sb.toString();
+        return new String(chars);
     }
 
     public Component buildComponentWithHighlights(String text, List<KeywordRegistry.Match> matches) {
         if (matches == null || matches.isEmpty()) return Component.text(text);
-        matches.sort(Comparator.comparingInt(a -> a.start));
-        java.util.List<Component> parts = new java.util.ArrayList<>();
+        if (!isSorted(matches)) {
+            // ne pas trier la liste de l'appelant, qui peut être partagée
+            matches = new ArrayList<>(matches);
+            matches.sort(Comparator.comparingInt(a -> a.start));
+        }
+        TextComponent.Builder builder = Component.text();
+        int length = text.length();
         int idx = 0;
         for (KeywordRegistry.Match m : matches) {
-            if (m.start > idx) parts.add(Component.text(text.substring(idx, m.start)));
-            parts.add(Component.text(text.substring(m.start, m.end)).color(m.action.getColor()));
-            idx = Math.max(idx, m.end);
+            int start = Math.max(idx, Math.min(m.start, length));
+            int end = Math.min(m.end, length);
+            if (start >= end) continue;
+            if (start > idx) builder.append(Component.text(text.substring(idx, start)));
+            builder.append(Component.text(text.substring(start, end), m.action.getColor()));
+            idx = end;
         }
-        if (idx < text.length()) parts.add(Component.text(text.substring(idx)));
-        Component res = Component.empty();
-        for (Component p : parts) res = res.append(p);
-        return res;
+        if (idx < length) builder.append(Component.text(text.substring(idx)));
+        return builder.build();
     }
 
     public Component formatForActionBar(String rawText, List<KeywordRegistry.Match> matches) {
         if (rawText == null) return Component.empty();
-        String normalized = Normalizer.normalize(rawText, Normalizer.Form.NFC);
-        String sanitized = sanitizePreserveLength(normalized);
+        String sanitized = sanitizePreserveLength(normalize(rawText));
         return (matches == null || matches.isEmpty()) ? Component.text(sanitized) : buildComponentWithHighlights(sanitized, matches);
     }
-}
 
+    /**
+     * Comme {@link #formatForActionBar(String, List)}, mais retourne le Component déjà construit pour
+     * ce joueur si le texte et les matches n'ont pas changé depuis le dernier appel.
+     */
+    public Component formatForActionBar(UUID playerId, String rawText, List<KeywordRegistry.Match> matches) {
+        if (playerId == null || rawText == null) return formatForActionBar(rawText, matches);
+        Rendered previous = lastRendered.get(playerId);
+        if (previous != null && previous.matches(rawText, matches)) {
+            return previous.component;
+        }
+        Component component = formatForActionBar(rawText, matches);
+        lastRendered.put(playerId, new Rendered(rawText, matches, component));
+        return component;
+    }
+
+    /**
+     * Oublie le dernier rendu d'un joueur (fin de session).
+     */
+    public void forget(UUID playerId) {
+        lastRendered.remove(playerId);
+    }
+
+    private static String normalize(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) {
+                return Normalizer.isNormalized(s, Normalizer.Form.NFC) ? s : Normalizer.normalize(s, Normalizer.Form.NFC);
+            }
+        }
+        // ASCII : déjà en NFC
+        return s;
+    }
+
+    private static boolean needsReplacement(char c) {
+        if (c >= 0x20 && c < 0x7F) {
+            return c == '&';
+        }
+        if (c == '§' || Character.isISOControl(c)) {
+            return true;
+        }
+        int type = Character.getType(c);
+        return type == Character.FORMAT || type == Character.PRIVATE_USE || type == Character.SURROGATE || type == Character.UNASSIGNED;
+    }
+
+    private static boolean isSorted(List<KeywordRegistry.Match> matches) {
+        for (int i = 1; i < matches.size(); i++) {
+            if (matches.get(i - 1).start > matches.get(i).start) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Dernier rendu d'un joueur : texte brut, positions et actions des matches, Component produit.
+     */
+    private static final class Rendered {
+        final String text;
+        final int[] bounds;
+        final KeywordAction[] actions;
+        final Component component;
+
+        Rendered(String text, List<KeywordRegistry.Match> matches, Component component) {
+            int size = matches == null ? 0 : matches.size();
+            this.text = text;
+            this.bounds = new int[size * 2];
+            this.actions = new KeywordAction[size];
+            for (int i = 0; i < size; i++) {
+                KeywordRegistry.Match m = matches.get(i);
+                bounds[i * 2] = m.start;
+                bounds[i * 2 + 1] = m.end;
+                actions[i] = m.action;
+            }
+            this.component = component;
+        }
+
+        boolean matches(String rawText, List<KeywordRegistry.Match> matches) {
+            int size = matches == null ? 0 : matches.size();
+            if (size != actions.length || !text.equals(rawText)) {
+                return false;
+            }
+            for (int i = 0; i < size; i++) {
+                KeywordRegistry.Match m = matches.get(i);
+                if (m.start != bounds[i * 2] || m.end != bounds[i * 2 + 1] || m.action != actions[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package fr.phylisium.firebaul.keyword;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recherche de mots-clés incrémentale sur les résultats partiels successifs d'un même énoncé.
+ * Les partiels Vosk sont presque toujours des préfixes les uns des autres : on conserve l'état de
+ * l'automate en fin du texte précédent et on ne parcourt que le suffixe ajouté. Si Vosk révise un
+ * mot déjà émis (le nouveau texte ne prolonge plus l'ancien) ou si le registre a changé, on
+ * reprend le texte entier.
+ * Une instance par session, non thread-safe.
+ */
+public class IncrementalKeywordMatcher {
+    private final KeywordRegistry registry;
+
+    private KeywordMatcher matcher;
+    private String lastText = "";
+    private int state = KeywordMatcher.ROOT;
+    private final List<KeywordRegistry.Match> matches = new ArrayList<>();
+    private List<KeywordRegistry.Match> snapshot = List.of();
+    private boolean changed;
+
+    public IncrementalKeywordMatcher(KeywordRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Met à jour les occurrences pour le nouveau partiel et les retourne, triées par début.
+     * La liste retournée n'est pas modifiée par les appels suivants.
+     */
+    public List<KeywordRegistry.Match> update(String text) {
+        if (text == null) {
+            text = "";
+        }
+        KeywordMatcher current = registry.getMatcher();
+        if (current == matcher && text.equals(lastText)) {
+            changed = false;
+            return snapshot;
+        }
+        changed = true;
+
+        int oldLength = lastText.length();
+        if (current != matcher || oldLength == 0 || !text.startsWith(lastText)) {
+            matcher = current;
+            matches.clear();
+            state = matcher.scan(text, 0, KeywordMatcher.ROOT, matches);
+        } else {
+            if (!KeywordMatcher.isBoundary(text, oldLength)) {
+                // le dernier mot s'est allongé ("fire" -> "fireball") : ses occurrences ne sont plus des mots entiers
+                matches.removeIf(m -> m.end == oldLength);
+            }
+            state = matcher.scan(text, oldLength, state, matches);
+        }
+        lastText = text;
+
+        List<KeywordRegistry.Match> sorted = new ArrayList<>(matches);
+        if (sorted.size() > 1) {
+            sorted.sort((a, b) -> Integer.compare(a.start, b.start));
+        }
+        snapshot = sorted;
+        return snapshot;
+    }
+
+    /**
+     * Vrai si le dernier {@link #update} a reçu un texte différent du précédent.
+     */
+    public boolean isChanged() {
+        return changed;
+    }
+
+    /**
+     * À appeler en fin d'énoncé : le prochain partiel repart de zéro.
+     */
+    public void reset() {
+        lastText = "";
+        state = KeywordMatcher.ROOT;
+        matches.clear();
+        snapshot = List.of();
+        changed = false;
+    }
+}
@@ -0,0 +1,26 @@
+package fr.phylisium.firebaul.keyword;
+
+import net.kyori.adventure.text.format.TextColor;
+import org.bukkit.entity.Player;
+
+import java.util.function.Consumer;
+
+/**
+ * Action déclenchée quand un mot-clé est reconnu dans la voix d'un joueur.
+ */
+public interface KeywordAction {
+    /**
+     * Mot ou expression déclencheur, tel qu'il doit apparaître dans la transcription.
+     */
+    String getKeyword();
+
+    /**
+     * Couleur utilisée pour surligner le mot-clé dans l'action bar.
+     */
+    TextColor getColor();
+
+    /**
+     * Effet appliqué au joueur, toujours exécuté sur le thread principal.
+     */
+    Consumer<Player> getHandler();
+}
@@ -0,0 +1,59 @@
+package fr.phylisium.firebaul.keyword;
+
+import com.google.gson.JsonArray;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Grammaire Vosk (liste JSON de phrases) générée à partir du {@link KeywordRegistry}.
+ * Un recognizer restreint à cette grammaire ne cherche que les mots-clés, plus {@code [unk]}
+ * pour absorber le reste de la parole : décodage bien moins coûteux et moins de faux déclenchements.
+ * Reconstruite paresseusement quand la version du registre change.
+ */
+public class KeywordGrammar {
+    public static final String UNKNOWN_TOKEN = "[unk]";
+
+    private final KeywordRegistry registry;
+    private long builtVersion = -1;
+    private String json;
+
+    public KeywordGrammar(KeywordRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Version du registre correspondant à {@link #getJson()}.
+     */
+    public long getVersion() {
+        return registry.getVersion();
+    }
+
+    public synchronized String getJson() {
+        long current = registry.getVersion();
+        if (json == null || builtVersion != current) {
+            json = build(registry);
+            builtVersion = current;
+        }
+        return json;
+    }
+
+    static String build(KeywordRegistry registry) {
+        Set<String> phrases = new TreeSet<>();
+        for (KeywordAction action : registry.getActions()) {
+            String keyword = action.getKeyword();
+            if (keyword == null || keyword.isBlank()) {
+                continue;
+            }
+            // Vosk attend des mots en minuscules séparés par un seul espace
+            phrases.add(keyword.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " "));
+        }
+        JsonArray array = new JsonArray();
+        for (String phrase : phrases) {
+            array.add(phrase);
+        }
+        array.add(UNKNOWN_TOKEN);
+        return array.toString();
+    }
+}
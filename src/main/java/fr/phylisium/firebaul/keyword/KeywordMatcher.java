@@ -0,0 +1,238 @@
+package fr.phylisium.firebaul.keyword;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Automate d'Aho–Corasick sur les mots-clés du registre : toutes les occurrences sont trouvées en
+ * un seul passage linéaire sur la transcription, quel que soit le nombre de mots-clés.
+ * Le texte est replié caractère par caractère (minuscules, accents retirés) sans changer sa longueur,
+ * donc les positions des {@link KeywordRegistry.Match} restent valables dans le texte d'origine.
+ * Immuable une fois construit : partagé sans verrou entre les threads de reconnaissance.
+ */
+public final class KeywordMatcher {
+    private static final int FOLD_TABLE_SIZE = 0x250;
+    private static final char[] FOLD_TABLE = buildFoldTable();
+
+    /** État initial de l'automate, à utiliser pour démarrer un {@link #scan}. */
+    public static final int ROOT = 0;
+
+    private final KeywordAction[] actions;
+    private final int[] patternLengths;
+    private final short[] classOf;
+    private final int stride;
+    private final int[] delta;
+    private final int[] output;
+    private final int[] dictLink;
+
+    private KeywordMatcher(KeywordAction[] actions, int[] patternLengths, short[] classOf, int stride,
+                           int[] delta, int[] output, int[] dictLink) {
+        this.actions = actions;
+        this.patternLengths = patternLengths;
+        this.classOf = classOf;
+        this.stride = stride;
+        this.delta = delta;
+        this.output = output;
+        this.dictLink = dictLink;
+    }
+
+    public static KeywordMatcher build(Collection<KeywordAction> keywordActions) {
+        List<KeywordAction> actions = new ArrayList<>();
+        List<String> patterns = new ArrayList<>();
+        for (KeywordAction action : keywordActions) {
+            if (action == null || action.getKeyword() == null) {
+                continue;
+            }
+            String folded = fold(action.getKeyword().trim());
+            if (!folded.isEmpty() && !patterns.contains(folded)) {
+                actions.add(action);
+                patterns.add(folded);
+            }
+        }
+
+        // alphabet réduit aux caractères présents dans les motifs ; classe 0 = tout le reste
+        char maxChar = 0;
+        for (String p : patterns) {
+            for (int i = 0; i < p.length(); i++) {
+                maxChar = (char) Math.max(maxChar, p.charAt(i));
+            }
+        }
+        short[] classOf = new short[patterns.isEmpty() ? 1 : maxChar + 1];
+        int classes = 1;
+        for (String p : patterns) {
+            for (int i = 0; i < p.length(); i++) {
+                char c = p.charAt(i);
+                if (classOf[c] == 0) {
+                    classOf[c] = (short) classes++;
+                }
+            }
+        }
+        int stride = classes;
+
+        // trie
+        List<int[]> gotoRows = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        gotoRows.add(newRow(stride));
+        outputs.add(-1);
+        int[] lengths = new int[patterns.size()];
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = patterns.get(p);
+            lengths[p] = pattern.length();
+            int state = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                int cls = classOf[pattern.charAt(i)];
+                int next = gotoRows.get(state)[cls];
+                if (next < 0) {
+                    next = gotoRows.size();
+                    gotoRows.add(newRow(stride));
+                    outputs.add(-1);
+                    gotoRows.get(state)[cls] = next;
+                }
+                state = next;
+            }
+            outputs.set(state, p);
+        }
+
+        // liens d'échec en largeur, transformés directement en table de transitions complète
+        int states = gotoRows.size();
+        int[] delta = new int[states * stride];
+        int[] fail = new int[states];
+        int[] output = new int[states];
+        int[] dictLink = new int[states];
+        for (int s = 0; s < states; s++) {
+            output[s] = outputs.get(s);
+            dictLink[s] = -1;
+        }
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int[] rootRow = gotoRows.get(ROOT);
+        for (int cls = 0; cls < stride; cls++) {
+            int next = rootRow[cls];
+            if (next > 0) {
+                delta[cls] = next;
+                fail[next] = ROOT;
+                queue.add(next);
+            } else {
+                delta[cls] = ROOT;
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int f = fail[state];
+            dictLink[state] = output[f] >= 0 ? f : dictLink[f];
+            int[] row = gotoRows.get(state);
+            for (int cls = 0; cls < stride; cls++) {
+                int next = row[cls];
+                if (next > 0) {
+                    fail[next] = delta[f * stride + cls];
+                    delta[state * stride + cls] = next;
+                    queue.add(next);
+                } else {
+                    delta[state * stride + cls] = delta[f * stride + cls];
+                }
+            }
+        }
+
+        return new KeywordMatcher(actions.toArray(new KeywordAction[0]), lengths, classOf, stride, delta, output, dictLink);
+    }
+
+    /**
+     * Toutes les occurrences (mots entiers) des mots-clés dans {@code text}, triées par position de début.
+     */
+    public List<KeywordRegistry.Match> findAll(String text) {
+        List<KeywordRegistry.Match> matches = new ArrayList<>();
+        if (text == null || text.isEmpty() || actions.length == 0) {
+            return matches;
+        }
+        scan(text, 0, ROOT, matches);
+        if (matches.size() > 1) {
+            matches.sort(Comparator.comparingInt(m -> m.start));
+        }
+        return matches;
+    }
+
+    /**
+     * Fait avancer l'automate sur {@code text[from..]} depuis {@code state}, ajoute les occurrences
+     * trouvées (dans l'ordre de leur fin) et retourne l'état final.
+     * Une occurrence qui se termine en fin de texte est ajoutée : sa frontière droite n'est
+     * définitive que si le texte ne s'allonge pas ensuite d'une lettre.
+     */
+    public int scan(String text, int from, int state, List<KeywordRegistry.Match> out) {
+        if (actions.length == 0) {
+            return ROOT;
+        }
+        int n = text.length();
+        for (int i = from; i < n; i++) {
+            char c = fold(text.charAt(i));
+            int cls = c < classOf.length ? classOf[c] : 0;
+            state = delta[state * stride + cls];
+            int s = output[state] >= 0 ? state : dictLink[state];
+            while (s >= 0) {
+                int p = output[s];
+                int end = i + 1;
+                int start = end - patternLengths[p];
+                if (isBoundary(text, start - 1) && isBoundary(text, end)) {
+                    out.add(new KeywordRegistry.Match(start, end, actions[p]));
+                }
+                s = dictLink[s];
+            }
+        }
+        return state;
+    }
+
+    public int size() {
+        return actions.length;
+    }
+
+    /**
+     * Repli d'un caractère : minuscule sans accent (é -> e, Ç -> c), un caractère pour un caractère.
+     */
+    public static char fold(char c) {
+        return c < FOLD_TABLE_SIZE ? FOLD_TABLE[c] : Character.toLowerCase(c);
+    }
+
+    public static String fold(String s) {
+        char[] chars = new char[s.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = fold(s.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    static boolean isBoundary(String text, int index) {
+        return index < 0 || index >= text.length() || !Character.isLetterOrDigit(text.charAt(index));
+    }
+
+    private static int[] newRow(int stride) {
+        int[] row = new int[stride];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static char[] buildFoldTable() {
+        char[] table = new char[FOLD_TABLE_SIZE];
+        for (int i = 0; i < FOLD_TABLE_SIZE; i++) {
+            char c = (char) i;
+            char folded = Character.toLowerCase(c);
+            String decomposed = Normalizer.normalize(String.valueOf(folded), Normalizer.Form.NFD);
+            if (decomposed.length() > 1 && Character.isLetter(decomposed.charAt(0))) {
+                boolean marksOnly = true;
+                for (int k = 1; k < decomposed.length(); k++) {
+                    if (Character.getType(decomposed.charAt(k)) != Character.NON_SPACING_MARK) {
+                        marksOnly = false;
+                        break;
+                    }
+                }
+                if (marksOnly) {
+                    folded = decomposed.charAt(0);
+                }
+            }
+            table[i] = folded;
+        }
+        return table;
+    }
+}
@@ -0,0 +1,92 @@
+package fr.phylisium.firebaul.keyword;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registre des mots-clés vocaux.
+ * Les écritures (enregistrement) sont rares et reconstruisent un {@link KeywordMatcher} immuable,
+ * publié atomiquement ; les lectures, faites à chaque résultat Vosk depuis les threads de
+ * reconnaissance, ne prennent aucun verrou.
+ */
+public class KeywordRegistry {
+    private final Map<String, KeywordAction> actions = new LinkedHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile KeywordMatcher matcher = KeywordMatcher.build(List.of());
+
+    public synchronized void register(KeywordAction action) {
+        if (action == null || action.getKeyword() == null || action.getKeyword().isBlank()) {
+            return;
+        }
+        actions.put(normalizeKey(action.getKeyword()), action);
+        rebuild();
+    }
+
+    public synchronized boolean unregister(String keyword) {
+        if (keyword == null) {
+            return false;
+        }
+        boolean removed = actions.remove(normalizeKey(keyword)) != null;
+        if (removed) {
+            rebuild();
+        }
+        return removed;
+    }
+
+    public synchronized List<KeywordAction> getActions() {
+        return List.copyOf(actions.values());
+    }
+
+    /**
+     * Incrémenté à chaque modification du registre ; permet aux caches (grammaire, matcher) de se reconstruire.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Automate courant ; une référence obtenue reste valable (immuable) même si le registre change ensuite.
+     */
+    public KeywordMatcher getMatcher() {
+        return matcher;
+    }
+
+    /**
+     * Retourne toutes les occurrences des mots-clés (mots entiers, insensible à la casse et aux accents),
+     * triées par position. La liste retournée est modifiable.
+     */
+    public List<Match> findAllMatches(String text) {
+        return matcher.findAll(text);
+    }
+
+    static String normalizeKey(String keyword) {
+        return KeywordMatcher.fold(keyword.trim());
+    }
+
+    private void rebuild() {
+        matcher = KeywordMatcher.build(actions.values());
+        version.incrementAndGet();
+    }
+
+    /**
+     * Occurrence d'un mot-clé dans un texte : [start, end[ en indices de caractères.
+     */
+    public static final class Match {
+        public final int start;
+        public final int end;
+        public final KeywordAction action;
+
+        public Match(int start, int end, KeywordAction action) {
+            this.start = start;
+            this.end = end;
+            this.action = action;
+        }
+
+        @Override
+        public String toString() {
+            return action.getKeyword() + "[" + start + "," + end + ")";
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package fr.phylisium.firebaul.scheduler;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * File de travail du thread principal, alimentée sans verrou depuis n'importe quel thread.
+ * Une tâche répétée la vide une fois par tick dans la limite d'un budget de temps : ce qui
+ * dépasse le budget reste dans la file pour le tick suivant, si bien qu'une rafale de
+ * déclenchements vocaux ou d'actions d'outils se répartit sur plusieurs ticks au lieu de faire
+ * chuter le TPS. Au moins une tâche est exécutée par tick pour garantir la progression.
+ * Les appels avec résultat ({@link #call}) ne bloquent personne : l'appelant reçoit un
+ * CompletableFuture, éventuellement borné par une échéance ; un appel annulé ou expiré avant
+ * son tour n'est pas exécuté, et {@link #stop()} fait échouer ceux encore en attente.
+ * Construite via {@link SchedulerBuilder}.
+ */
+public class MainThreadQueue {
+    private final Plugin plugin;
+    private final long tickBudgetNanos;
+    private final long periodTicks;
+
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile int deferredTicks;
+    private volatile boolean stopped;
+    private int taskId = -1;
+
+    MainThreadQueue(Plugin plugin, long tickBudgetMicros, long periodTicks) {
+        this.plugin = plugin;
+        this.tickBudgetNanos = Math.max(1L, tickBudgetMicros) * 1000L;
+        this.periodTicks = Math.max(1L, periodTicks);
+    }
+
+    public synchronized MainThreadQueue start() {
+        if (taskId == -1) {
+            taskId = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 1L, periodTicks).getTaskId();
+        }
+        return this;
+    }
+
+    public synchronized void stop() {
+        stopped = true;
+        if (taskId != -1) {
+            Bukkit.getScheduler().cancelTask(taskId);
+            taskId = -1;
+        }
+        int dropped = failPending();
+        if (dropped > 0) {
+            plugin.getLogger().warning("Main-thread queue stopped with " + dropped + " pending tasks");
+        }
+    }
+
+    public boolean isRunning() {
+        return taskId != -1;
+    }
+
+    /**
+     * Ajoute une tâche à exécuter sur le thread principal lors d'un prochain tick.
+     */
+    public void submit(Runnable task) {
+        if (task == null) {
+            return;
+        }
+        queue.offer(task);
+        pending.incrementAndGet();
+    }
+
+    /**
+     * Exécute {@code task} sur le thread principal et expose son résultat.
+     */
+    public <T> CompletableFuture<T> call(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (stopped) {
+            future.completeExceptionally(new RejectedExecutionException("Main-thread queue stopped"));
+            return future;
+        }
+        submit(new Call<>(task, future));
+        if (stopped) {
+            // stop() a pu vider la file juste avant l'ajout
+            failPending();
+        }
+        return future;
+    }
+
+    /**
+     * Comme {@link #call(Callable)}, mais le future échoue en TimeoutException si la tâche n'a pas
+     * abouti dans le délai ; elle n'est alors plus exécutée si elle attendait encore son tour.
+     */
+    public <T> CompletableFuture<T> call(Callable<T> task, long timeout, TimeUnit unit) {
+        return call(task).orTimeout(timeout, unit);
+    }
+
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Nombre de ticks où le budget a été atteint avec des tâches encore en attente.
+     */
+    public int getDeferredTicks() {
+        return deferredTicks;
+    }
+
+    /**
+     * Retire les tâches en attente ; les appels avec résultat échouent au lieu de rester en suspens.
+     */
+    private int failPending() {
+        int dropped = 0;
+        Runnable task;
+        while ((task = queue.poll()) != null) {
+            pending.decrementAndGet();
+            if (task instanceof Call<?> call) {
+                call.future.completeExceptionally(new RejectedExecutionException("Main-thread queue stopped"));
+            }
+            dropped++;
+        }
+        return dropped;
+    }
+
+    /**
+     * Thread principal : exécute les tâches en attente jusqu'à épuisement du budget.
+     */
+    void drain() {
+        long deadline = System.nanoTime() + tickBudgetNanos;
+        Runnable task;
+        while ((task = queue.poll()) != null) {
+            pending.decrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable t) {
+                plugin.getLogger().log(Level.SEVERE, "Error in main-thread task", t);
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                if (!queue.isEmpty()) {
+                    deferredTicks++;
+                }
+                return;
+            }
+        }
+    }
+
+    private static final class Call<T> implements Runnable {
+        final Callable<T> task;
+        final CompletableFuture<T> future;
+
+        Call(Callable<T> task, CompletableFuture<T> future) {
+            this.task = task;
+            this.future = future;
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                // annulé ou expiré avant d'avoir été exécuté
+                return;
+            }
+            try {
+                future.complete(task.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }
+    }
+}
@@ -1,4 +1,38 @@
 package fr.phylisium.firebaul.scheduler;
 
+import org.bukkit.plugin.Plugin;
+
+import java.util.Objects;
+
+/**
+ * Construit la {@link MainThreadQueue} du plugin.
+ */
 public class SchedulerBuilder {
+    private final Plugin plugin;
+    private long tickBudgetMicros = 2000;
+    private long periodTicks = 1;
+
+    public SchedulerBuilder(Plugin plugin) {
+        this.plugin = Objects.requireNonNull(plugin, "plugin");
+    }
+
+    /**
+     * Temps maximum (microsecondes) consacré à la file à chaque passage sur le thread principal.
+     */
+    public SchedulerBuilder tickBudgetMicros(long tickBudgetMicros) {
+        this.tickBudgetMicros = Math.max(1L, tickBudgetMicros);
+        return this;
+    }
+
+    /**
+     * Intervalle en ticks entre deux vidages de la file (1 = chaque tick).
+     */
+    public SchedulerBuilder periodTicks(long periodTicks) {
+        this.periodTicks = Math.max(1L, periodTicks);
+        return this;
+    }
+
+    public MainThreadQueue build() {
+        return new MainThreadQueue(plugin, tickBudgetMicros, periodTicks);
+    }
 }
@@ -0,0 +1,108 @@
+package fr.phylisium.firebaul.keyword;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regroupe les mises à jour d'action bar produites par les threads de reconnaissance.
+ * Chaque joueur a un emplacement qui ne garde que le dernier Component publié ; une seule tâche
+ * répétée sur le thread principal vide les emplacements modifiés une fois par tick. Le coût côté
+ * thread principal est donc borné par le nombre de joueurs qui parlent, pas par le débit de partiels.
+ * Un Component identique au dernier envoyé n'est pas renvoyé tant que celui-ci est encore affiché ;
+ * passé ce délai (l'action bar s'efface en ~2 s), il est renvoyé comme n'importe quelle mise à jour.
+ */
+public class ActionBarDispatcher {
+    // en dessous de la durée d'affichage de l'action bar, pour renvoyer avant qu'elle ne s'efface
+    private static final long RESEND_AFTER_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Plugin plugin;
+    private final Map<UUID, Component> pending = new ConcurrentHashMap<>();
+    private final Map<UUID, Sent> lastSent = new ConcurrentHashMap<>();
+    private int taskId = -1;
+
+    public ActionBarDispatcher(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Remplace le contenu en attente pour ce joueur. Appelable depuis n'importe quel thread.
+     */
+    public void publish(UUID playerId, Component component) {
+        if (playerId == null || component == null) {
+            return;
+        }
+        pending.put(playerId, component);
+    }
+
+    public synchronized void start() {
+        if (taskId != -1 || plugin == null) {
+            return;
+        }
+        taskId = Bukkit.getScheduler().runTaskTimer(plugin, this::flush, 1L, 1L).getTaskId();
+    }
+
+    public synchronized void stop() {
+        if (taskId != -1) {
+            Bukkit.getScheduler().cancelTask(taskId);
+            taskId = -1;
+        }
+        pending.clear();
+        lastSent.clear();
+    }
+
+    public void forget(UUID playerId) {
+        pending.remove(playerId);
+        lastSent.remove(playerId);
+    }
+
+    /**
+     * Thread principal : envoie le dernier Component de chaque emplacement modifié depuis le tick précédent.
+     */
+    void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        for (UUID playerId : pending.keySet()) {
+            Component component = pending.remove(playerId);
+            if (component == null) {
+                continue;
+            }
+            long now = System.nanoTime();
+            Sent previous = lastSent.get(playerId);
+            if (previous != null && previous.isShowing(component, now)) {
+                continue;
+            }
+            Player player = Bukkit.getPlayer(playerId);
+            if (player == null || !player.isOnline()) {
+                lastSent.remove(playerId);
+                continue;
+            }
+            player.sendActionBar(component);
+            lastSent.put(playerId, new Sent(component, now));
+        }
+    }
+
+    private static final class Sent {
+        final Component component;
+        final long atNanos;
+
+        Sent(Component component, long atNanos) {
+            this.component = component;
+            this.atNanos = atNanos;
+        }
+
+        /**
+         * Vrai si {@code candidate} est déjà à l'écran : même contenu, envoyé il y a moins de RESEND_AFTER_NANOS.
+         */
+        boolean isShowing(Component candidate, long now) {
+            return now - atNanos < RESEND_AFTER_NANOS && (candidate == component || candidate.equals(component));
+        }
+    }
+}
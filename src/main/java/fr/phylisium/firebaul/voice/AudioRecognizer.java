@@ -5,43 +5,104 @@ import fr.phylisium.firebaul.Firebaul;
 import org.vosk.Model;
 import org.vosk.Recognizer;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import java.util.Arrays;
 
 /**
  * Encapsule le décodage Opus et le Recognizer Vosk pour faciliter les tests/mocks.
+ * <p>
+ * Allocation restante : {@link OpusDecoder#decode(byte[])} (opus4j) renvoie un nouveau short[] de
+ * 960 échantillons (~2 Ko) par trame, la binding n'offrant pas de décodage dans un buffer fourni.
+ * Ce tableau meurt aussitôt rééchantillonné ; le rééchantillonnage et la conversion en octets écrivent
+ * dans des buffers réutilisés.
  */
 public class AudioRecognizer {
+    private static final int OPUS_SAMPLE_RATE = 48000;
+    private static final int RECOGNIZER_SAMPLE_RATE = 16000;
+    private static final int OPUS_FRAME_SIZE = 960;
+    private static final int RESAMPLER_TAPS_PER_PHASE = 32;
+
     private final OpusDecoder decoder;
     private final Recognizer recognizer;
+    private final PolyphaseResampler resampler;
+
+    // buffers réutilisés d'une trame à l'autre (une instance par session)
+    private short[] pcm16k;
+    private byte[] pcmBytes;
+    private int pcmSamples;
+    private long grammarVersion = -1;
 
     public AudioRecognizer(Model model) throws Exception {
-        this.decoder = new OpusDecoder(48000, 1);
-        this.decoder.setFrameSize(960);
-        this.recognizer = new Recognizer(model, 16000.0f);
+        this(model, null);
+    }
+
+    /**
+     * @param grammar liste JSON de phrases autorisées (voir {@link KeywordGrammar}), ou null pour le vocabulaire libre
+     */
+    public AudioRecognizer(Model model, String grammar) throws Exception {
+        this.decoder = new OpusDecoder(OPUS_SAMPLE_RATE, 1);
+        this.decoder.setFrameSize(OPUS_FRAME_SIZE);
+        this.recognizer = grammar == null
+                ? new Recognizer(model, (float) RECOGNIZER_SAMPLE_RATE)
+                : new Recognizer(model, (float) RECOGNIZER_SAMPLE_RATE, grammar);
+        this.resampler = new PolyphaseResampler(OPUS_SAMPLE_RATE, RECOGNIZER_SAMPLE_RATE, RESAMPLER_TAPS_PER_PHASE);
+        int maxOut = resampler.maxOutputLength(OPUS_FRAME_SIZE);
+        this.pcm16k = new short[maxOut];
+        this.pcmBytes = new byte[maxOut * 2];
     }
 
     /**
      * Decode an opus frame into 16k little-endian PCM bytes (mono).
      * Returns null if decoding failed or no audio.
+     * Allocates a fresh array per call; the hot path uses {@link #decodeOpusTo16k(byte[])}.
      */
     public byte[] decodeOpusTo16kBytes(byte[] opus) {
+        int len = decodeOpusTo16k(opus);
+        return len <= 0 ? null : Arrays.copyOf(pcmBytes, len);
+    }
+
+    /**
+     * Décode une trame Opus, la rééchantillonne à 16 kHz (filtre anti-repliement) et écrit le PCM
+     * little-endian dans {@link #getPcmBuffer()}. Seul le tableau rendu par le décodeur Opus est
+     * alloué par trame (voir la documentation de la classe).
+     *
+     * @return nombre d'octets valides dans le buffer PCM, 0 si rien à traiter
+     */
+    public int decodeOpusTo16k(byte[] opus) {
+        pcmSamples = 0;
         if (opus == null || opus.length == 0) {
-            return null;
+            return 0;
         }
         short[] decoded = decoder.decode(opus);
         if (decoded == null || decoded.length == 0) {
-            return null;
+            return 0;
         }
-        int outLen = decoded.length / 3; // simple downsample by taking every 3rd sample
-        if (outLen <= 0) {
-            return null;
+        int maxOut = resampler.maxOutputLength(decoded.length);
+        if (maxOut > pcm16k.length) {
+            pcm16k = new short[maxOut];
+            pcmBytes = new byte[maxOut * 2];
         }
-        short[] pcm16k = new short[outLen];
-        for (int i = 0; i < outLen; i++) {
-            pcm16k[i] = decoded[i * 3];
-        }
-        return shortsToLittleEndianBytes(pcm16k, outLen);
+        int outLen = resampler.process(decoded, decoded.length, pcm16k);
+        writeLittleEndian(pcm16k, outLen, pcmBytes);
+        pcmSamples = outLen;
+        return outLen * 2;
+    }
+
+    /**
+     * Buffer PCM 16 bits little-endian de la dernière trame décodée (réutilisé, ne pas conserver).
+     */
+    public byte[] getPcmBuffer() {
+        return pcmBytes;
+    }
+
+    /**
+     * Échantillons 16 kHz de la dernière trame décodée (réutilisé, ne pas conserver).
+     */
+    public short[] getPcmSamples() {
+        return pcm16k;
+    }
+
+    public int getPcmSampleCount() {
+        return pcmSamples;
     }
 
     public boolean acceptWaveForm(byte[] pcmBytes, int len) {
@@ -71,11 +132,37 @@ public class AudioRecognizer {
         }
     }
 
+    /**
+     * Restreint le recognizer à une nouvelle grammaire. À appeler entre deux énoncés uniquement.
+     */
+    public boolean applyGrammar(String grammar, long version) {
+        try {
+            recognizer.setGrammar(grammar);
+            grammarVersion = version;
+            return true;
+        } catch (Exception e) {
+            Firebaul.getInstance().getLogger().warning("Unable to apply recognizer grammar: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Version du registre de mots-clés de la grammaire appliquée, -1 en vocabulaire libre.
+     */
+    public long getGrammarVersion() {
+        return grammarVersion;
+    }
+
+    void setGrammarVersion(long grammarVersion) {
+        this.grammarVersion = grammarVersion;
+    }
+
     public void reset() {
         try {
             decoder.resetState();
         } catch (Exception ignored) {
         }
+        resampler.reset();
         try {
             recognizer.reset();
         } catch (Exception ignored) {
@@ -99,12 +186,11 @@ public class AudioRecognizer {
         }
     }
 
-    private byte[] shortsToLittleEndianBytes(short[] shorts, int len) {
-        if (shorts == null || len <= 0) {
-            return null;
+    private static void writeLittleEndian(short[] shorts, int len, byte[] out) {
+        for (int i = 0, j = 0; i < len; i++, j += 2) {
+            short v = shorts[i];
+            out[j] = (byte) v;
+            out[j + 1] = (byte) (v >> 8);
         }
-        byte[] bytes = new byte[len * 2];
-        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().put(shorts, 0, len);
-        return bytes;
     }
 }
@@ -1,67 +1,525 @@
 package fr.phylisium.firebaul.keyword;
 
-import fr.phylisium.firebaul.Firebaul;
+import fr.phylisium.firebaul.keyword.SpeechEventLog.Category;
+import org.slf4j.event.Level;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Service simple pour gérer les timestamps de dernier trigger par joueur/keyword.
- * Thread-safe via ConcurrentHashMap.
- * Ajoute TTL/purge pour libérer la mémoire et un mode debug.
+ * Les entrées vivent dans une table à adressage ouvert de longs primitifs (UUID + identifiant de
+ * keyword interné + timestamp) : {@link #tryAcquire} vérifie et enregistre le trigger en un seul CAS,
+ * sans verrou ni allocation. La table n'est reconstruite (agrandissement ou compaction) que rarement,
+ * sous verrou, les écrivains basculant sur la nouvelle table dès sa publication.
+ * Les timestamps viennent de {@link System#nanoTime()} (insensible aux sauts d'horloge). Chaque entrée
+ * est planifiée une fois dans une {@link TimingWheel} à sa création : la purge ne traite que les
+ * entrées échues au lieu de parcourir toute la table.
+ * Ajoute TTL/purge pour libérer la mémoire ; les traces passent par un {@link SpeechEventLog}
+ * (catégorie debounce), sans rien construire quand elle est désactivée.
  */
 public class DebounceService {
-    private final Map<UUID, Map<String, Long>> lastTrigger = new ConcurrentHashMap<>();
-    private volatile boolean debug = false;
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final long DEFAULT_TTL_MS = 60 * 60 * 1000L;
+    private static final long WHEEL_TICK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<String, Integer> keywordIds = new ConcurrentHashMap<>();
+    private final List<String> keywordNames = new ArrayList<>();
+    private final Object rebuildLock = new Object();
+    private final TimingWheel<Key> expiry = new TimingWheel<>(WHEEL_TICK_NANOS);
+    private final AtomicInteger expired = new AtomicInteger();
+    private volatile Table table;
+    private volatile long ttlNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_TTL_MS);
+    private volatile long maxWindowNanos;
+    private volatile SpeechEventLog eventLog = new SpeechEventLog();
+
+    public DebounceService() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DebounceService(int initialCapacity) {
+        this.table = new Table(initialCapacity);
+    }
+
+    /**
+     * Durée de conservation d'une entrée après son dernier trigger (jamais moins que la plus grande
+     * fenêtre de debounce utilisée, sans quoi une entrée pourrait disparaître en pleine fenêtre).
+     */
+    public void setTtl(long ttlMs) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMs));
+    }
+
+    /**
+     * Identifiant entier stable d'un keyword, à résoudre une fois puis passer à {@link #tryAcquire}.
+     */
+    public int keywordId(String key) {
+        Integer id = keywordIds.get(key);
+        if (id != null) {
+            return id;
+        }
+        synchronized (keywordNames) {
+            return keywordIds.computeIfAbsent(key, k -> {
+                keywordNames.add(k);
+                return keywordNames.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Vérifie la fenêtre de debounce et enregistre le trigger atomiquement : parmi plusieurs threads
+     * qui tentent le même joueur/keyword dans la fenêtre, un seul obtient true.
+     */
+    public boolean tryAcquire(UUID playerId, int keywordId, long windowMs) {
+        long window = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        if (window > maxWindowNanos) {
+            maxWindowNanos = window;
+        }
+        int result = acquire(playerId, keywordId + 1L, window);
+        if (result == Table.REJECTED) {
+            eventLog.at(Category.DEBOUNCE, Level.DEBUG, playerId)
+                    .setMessage("debounce rejected player={} keyword={}")
+                    .addArgument(playerId).addArgument(() -> keywordName(keywordId))
+                    .log();
+        }
+        return result != Table.REJECTED;
+    }
 
     /**
      * Retourne vrai si le keyword peut être déclenché pour ce joueur (selon debounceMs).
+     *
+     * @deprecated non atomique avec {@link #recordTrigger} ; utiliser {@link #tryAcquire}
      */
+    @Deprecated
     public boolean canTrigger(UUID playerId, String key, long debounceMs) {
-        long now = System.currentTimeMillis();
-        Map<String, Long> playerMap = lastTrigger.computeIfAbsent(playerId, k -> new ConcurrentHashMap<>());
-        long last = playerMap.getOrDefault(key, 0L);
-        boolean ok = (now - last) >= debounceMs;
-        if (debug) Firebaul.getInstance().getLogger().info("[DebounceService] canTrigger=" + ok + " player=" + playerId + " key=" + key + " last=" + last);
+        long now = System.nanoTime();
+        long last = lastTrigger(playerId, keywordId(key));
+        boolean ok = last == Table.NEVER || (now - last) >= TimeUnit.MILLISECONDS.toNanos(debounceMs);
+        eventLog.at(Category.DEBOUNCE, Level.TRACE, playerId)
+                .setMessage("canTrigger={} player={} keyword={}")
+                .addArgument(ok).addArgument(playerId).addArgument(key)
+                .log();
         return ok;
     }
 
     /**
-     * Enregistre le trigger (timestamp currentTimeMillis) pour le joueur+keyword.
-     * Doit être appelé depuis le thread principal pour correspondre au comportement précédent.
+     * Enregistre le trigger (timestamp nanoTime) pour le joueur+keyword.
+     *
+     * @deprecated utiliser {@link #tryAcquire}
      */
+    @Deprecated
     public void recordTrigger(UUID playerId, String key) {
-        long now = System.currentTimeMillis();
-        Map<String, Long> playerMap = lastTrigger.computeIfAbsent(playerId, k -> new ConcurrentHashMap<>());
-        playerMap.put(key, now);
-        if (debug) Firebaul.getInstance().getLogger().info("[DebounceService] recordTrigger player=" + playerId + " key=" + key + " @ " + now);
+        acquire(playerId, keywordId(key) + 1L, 0);
+        eventLog.at(Category.DEBOUNCE, Level.TRACE, playerId)
+                .setMessage("recordTrigger player={} keyword={}")
+                .addArgument(playerId).addArgument(key)
+                .log();
     }
 
     /**
-     * Supprime toutes les entrées plus anciennes que ttlMs (millisecondes).
-     * Retourne le nombre d'entrées supprimées (approximatif).
+     * Supprime les entrées dont le TTL est échu (voir {@link #setTtl}) en faisant avancer la roue
+     * d'expiration ; le coût dépend du nombre d'entrées échues, pas de la taille de la table.
+     * Compacte la table si les tombes y deviennent trop nombreuses.
+     * Retourne le nombre d'entrées supprimées.
      */
-    public int purgeExpired(long ttlMs) {
-        long now = System.currentTimeMillis();
-        int removed = 0;
-        Iterator<Map.Entry<UUID, Map<String, Long>>> it = lastTrigger.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<UUID, Map<String, Long>> e = it.next();
-            Map<String, Long> pm = e.getValue();
-            pm.entrySet().removeIf(entry -> (now - entry.getValue()) > ttlMs);
-            if (pm.isEmpty()) { it.remove(); removed++; }
-        }
-        if (debug) Firebaul.getInstance().getLogger().info("[DebounceService] purgeExpired removedPlayers=" + removed + " ttlMs=" + ttlMs);
+    public int purgeExpired() {
+        expired.set(0);
+        int fired = expiry.advance(System.nanoTime(), this::expire);
+        int removed = expired.get();
+        Table t = table;
+        if (t.tombstones() > t.capacity() / 4) {
+            rebuild(t);
+        }
+        eventLog.at(Category.DEBOUNCE, Level.DEBUG, null)
+                .setMessage("purgeExpired removed={} timers_fired={} pending={}")
+                .addArgument(removed).addArgument(fired).addArgument(expiry::size)
+                .log();
         return removed;
     }
 
-    // exposer la map si nécessaire (lecture seule) — utile pour diagnostics
+    // exposer une copie si nécessaire (lecture seule) — utile pour diagnostics
     public Map<UUID, Map<String, Long>> getSnapshot() {
-        return lastTrigger;
+        Map<UUID, Map<String, Long>> snapshot = new HashMap<>();
+        Table t = table;
+        // timestamps exposés en epoch millis, reconstruits depuis nanoTime
+        long wallNow = System.currentTimeMillis();
+        long nanoNow = System.nanoTime();
+        for (int slot = 0; slot < t.capacity(); slot++) {
+            long tag = t.tag(slot);
+            long last = t.last(slot);
+            if (tag <= 0 || !Table.isTimestamp(last)) {
+                continue;
+            }
+            UUID player = new UUID(t.msb(slot), t.lsb(slot));
+            long epochMs = wallNow - TimeUnit.NANOSECONDS.toMillis(nanoNow - last);
+            snapshot.computeIfAbsent(player, k -> new HashMap<>()).put(keywordName((int) (tag - 1)), epochMs);
+        }
+        return snapshot;
     }
 
-    public void setDebug(boolean debug) { this.debug = debug; }
-    public boolean isDebug() { return debug; }
+    public int size() {
+        return table.liveCount();
+    }
+
+    public void setEventLog(SpeechEventLog eventLog) {
+        this.eventLog = eventLog == null ? new SpeechEventLog() : eventLog;
+    }
+
+    private int acquire(UUID playerId, long tag, long windowNanos) {
+        long now = System.nanoTime();
+        long msb = playerId.getMostSignificantBits();
+        long lsb = playerId.getLeastSignificantBits();
+        while (true) {
+            Table t = table;
+            int slot = t.findOrInsert(msb, lsb, tag);
+            if (slot == Table.FULL) {
+                rebuild(t);
+                continue;
+            }
+            int result = slot == Table.MOVED ? Table.MOVED : t.acquire(slot, now, windowNanos);
+            switch (result) {
+                case Table.MOVED -> awaitSuccessor(t);
+                case Table.DEAD_ENTRY -> {
+                    // entrée expirée entre la recherche et le CAS : elle devient une tombe, recommencer
+                }
+                case Table.ACQUIRED_FIRST -> {
+                    expiry.schedule(new Key(msb, lsb, tag), now + effectiveTtl());
+                    return result;
+                }
+                default -> {
+                    return result;
+                }
+            }
+        }
+    }
+
+    private long lastTrigger(UUID playerId, int keywordId) {
+        while (true) {
+            Table t = table;
+            int slot = t.find(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), keywordId + 1L);
+            long last = slot < 0 ? Table.NEVER : t.last(slot);
+            if (last == Table.FROZEN || (slot < 0 && t.retired)) {
+                awaitSuccessor(t);
+                continue;
+            }
+            return Table.isTimestamp(last) ? last : Table.NEVER;
+        }
+    }
+
+    private long effectiveTtl() {
+        return Math.max(ttlNanos, maxWindowNanos);
+    }
+
+    /**
+     * Appelé par la roue à l'échéance d'une entrée : la supprime si son dernier trigger est plus
+     * ancien que le TTL, la replanifie sinon.
+     */
+    private void expire(Key key) {
+        long now = System.nanoTime();
+        while (true) {
+            Table t = table;
+            int slot = t.find(key.msb, key.lsb, key.tag);
+            long last = slot < 0 ? Table.NEVER : t.last(slot);
+            if (last == Table.FROZEN || (slot < 0 && t.retired)) {
+                awaitSuccessor(t);
+                continue;
+            }
+            if (slot < 0) {
+                return;
+            }
+            long deadline = last + effectiveTtl();
+            if (last != Table.NEVER && deadline - now > 0) {
+                // déclenché de nouveau depuis la planification
+                expiry.schedule(key, deadline);
+                return;
+            }
+            if (t.kill(slot, last)) {
+                expired.incrementAndGet();
+                return;
+            }
+            // trigger concurrent ou table gelée : réévaluer
+        }
+    }
+
+    private String keywordName(int id) {
+        synchronized (keywordNames) {
+            return id >= 0 && id < keywordNames.size() ? keywordNames.get(id) : "#" + id;
+        }
+    }
+
+    private void awaitSuccessor(Table retired) {
+        while (table == retired) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Gèle chaque entrée de {@code from}, recopie les entrées vivantes dans une nouvelle table
+     * (tombes éliminées) et la publie. Un CAS réussi avant le gel est recopié ; après le gel, il échoue
+     * et l'écrivain rejoue sur la nouvelle table : aucun trigger n'est perdu ni compté deux fois.
+     * La capacité double si la table est réellement pleine, reste identique sinon.
+     */
+    private void rebuild(Table from) {
+        synchronized (rebuildLock) {
+            if (table != from) {
+                return;
+            }
+            from.retired = true;
+            long[] live = new long[from.capacity() * 4];
+            int count = 0;
+            for (int slot = 0; slot < from.capacity(); slot++) {
+                long last = from.freeze(slot);
+                if (last != Table.DEAD) {
+                    int base = count++ * 4;
+                    live[base] = from.tag(slot);
+                    live[base + 1] = from.msb(slot);
+                    live[base + 2] = from.lsb(slot);
+                    live[base + 3] = last;
+                }
+            }
+            int capacity = count * 2 > from.capacity() * 3 / 4 ? from.capacity() * 2 : from.capacity();
+            Table fresh = new Table(capacity);
+            for (int i = 0; i < count; i++) {
+                int base = i * 4;
+                fresh.copy(live[base + 1], live[base + 2], live[base], live[base + 3]);
+            }
+            table = fresh;
+        }
+    }
+
+    private static final class Key {
+        final long msb;
+        final long lsb;
+        final long tag;
+
+        Key(long msb, long lsb, long tag) {
+            this.msb = msb;
+            this.lsb = lsb;
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * Table à adressage ouvert (sondage linéaire), 4 longs par entrée : [tag, msb, lsb, last].
+     * tag vaut 0 (libre), BUSY (en cours d'écriture), TOMBSTONE (expirée), FROZEN_TAG (case libre d'une
+     * table retirée) ou identifiant de keyword + 1.
+     * Une entrée expire en deux temps : last passe à DEAD par CAS (ce qui la rend définitivement
+     * inutilisable pour {@link #acquire}), puis tag passe à TOMBSTONE. Les tombes ne sont pas réutilisées :
+     * elles disparaissent à la prochaine reconstruction.
+     */
+    private static final class Table {
+        static final long EMPTY = 0L;
+        static final long BUSY = -1L;
+        static final long TOMBSTONE = -2L;
+        static final long FROZEN_TAG = -3L;
+        static final long NEVER = Long.MIN_VALUE;
+        static final long DEAD = Long.MAX_VALUE;
+        static final long FROZEN = Long.MAX_VALUE - 1;
+        static final int FULL = -1;
+        static final int MOVED = -2;
+        static final int DEAD_ENTRY = -3;
+        static final int REJECTED = 0;
+        static final int ACQUIRED = 1;
+        static final int ACQUIRED_FIRST = 2;
+        private static final int STRIDE = 4;
+
+        private final AtomicLongArray slots;
+        private final int mask;
+        private final int maxUsed;
+        private final AtomicInteger used = new AtomicInteger();
+        private final AtomicInteger tombstones = new AtomicInteger();
+        volatile boolean retired;
+
+        Table(int capacity) {
+            int size = Integer.highestOneBit(Math.max(16, capacity - 1)) << 1;
+            this.slots = new AtomicLongArray(size * STRIDE);
+            this.mask = size - 1;
+            this.maxUsed = size * 3 / 4;
+        }
+
+        static boolean isTimestamp(long last) {
+            return last != NEVER && last != DEAD && last != FROZEN;
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+
+        int liveCount() {
+            return used.get() - tombstones.get();
+        }
+
+        int tombstones() {
+            return tombstones.get();
+        }
+
+        long tag(int slot) {
+            return slots.get(slot * STRIDE);
+        }
+
+        long msb(int slot) {
+            return slots.get(slot * STRIDE + 1);
+        }
+
+        long lsb(int slot) {
+            return slots.get(slot * STRIDE + 2);
+        }
+
+        long last(int slot) {
+            return slots.get(slot * STRIDE + 3);
+        }
+
+        long awaitTag(int slot) {
+            long tag;
+            while ((tag = tag(slot)) == BUSY) {
+                Thread.onSpinWait();
+            }
+            return tag;
+        }
+
+        /**
+         * Entrée vivante de la clé, ou -1 (absente, ou table retirée si {@link #retired}).
+         */
+        int find(long msb, long lsb, long tag) {
+            int i = hash(msb, lsb, tag) & mask;
+            for (int probe = 0; probe <= mask; probe++, i = (i + 1) & mask) {
+                long current = awaitTag(i);
+                if (current == EMPTY || current == FROZEN_TAG) {
+                    return -1;
+                }
+                if (current == tag && msb(i) == msb && lsb(i) == lsb && last(i) != DEAD) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Retourne l'entrée de la clé, en la créant si besoin ; FULL si la table doit être agrandie,
+         * MOVED si elle a été retirée.
+         */
+        int findOrInsert(long msb, long lsb, long tag) {
+            int i = hash(msb, lsb, tag) & mask;
+            for (int probe = 0; probe <= mask; ) {
+                long current = awaitTag(i);
+                if (current == FROZEN_TAG) {
+                    return MOVED;
+                }
+                if (current == EMPTY) {
+                    if (used.get() >= maxUsed) {
+                        return FULL;
+                    }
+                    int base = i * STRIDE;
+                    if (!slots.compareAndSet(base, EMPTY, BUSY)) {
+                        continue; // un autre thread vient de prendre l'entrée : la réexaminer
+                    }
+                    slots.lazySet(base + 1, msb);
+                    slots.lazySet(base + 2, lsb);
+                    slots.lazySet(base + 3, NEVER);
+                    used.incrementAndGet();
+                    slots.set(base, tag); // publication
+                    return i;
+                }
+                if (current == tag && msb(i) == msb && lsb(i) == lsb) {
+                    if (last(i) != DEAD) {
+                        return i;
+                    }
+                    // entrée en cours d'expiration : attendre la tombe et continuer le sondage
+                    while (tag(i) == current) {
+                        Thread.onSpinWait();
+                    }
+                }
+                probe++;
+                i = (i + 1) & mask;
+            }
+            return FULL;
+        }
+
+        /**
+         * Enregistre {@code now} si la fenêtre est écoulée. ACQUIRED_FIRST signale le premier trigger
+         * de l'entrée (à planifier pour l'expiration).
+         */
+        int acquire(int slot, long now, long windowNanos) {
+            int idx = slot * STRIDE + 3;
+            while (true) {
+                long last = slots.get(idx);
+                if (last == DEAD) {
+                    return DEAD_ENTRY;
+                }
+                if (last == FROZEN) {
+                    return MOVED;
+                }
+                if (last != NEVER && now - last < windowNanos) {
+                    return REJECTED;
+                }
+                if (slots.compareAndSet(idx, last, now)) {
+                    return last == NEVER ? ACQUIRED_FIRST : ACQUIRED;
+                }
+            }
+        }
+
+        /**
+         * Transforme l'entrée en tombe si son dernier trigger vaut toujours {@code expectedLast}.
+         */
+        boolean kill(int slot, long expectedLast) {
+            int base = slot * STRIDE;
+            if (!slots.compareAndSet(base + 3, expectedLast, DEAD)) {
+                return false;
+            }
+            slots.set(base, TOMBSTONE);
+            tombstones.incrementAndGet();
+            return true;
+        }
+
+        /**
+         * Gèle une case pendant une reconstruction et retourne le dernier timestamp qu'elle portait
+         * (DEAD si aucune entrée vivante à recopier).
+         */
+        long freeze(int slot) {
+            int base = slot * STRIDE;
+            while (true) {
+                long tag = awaitTag(slot);
+                if (tag == EMPTY) {
+                    if (slots.compareAndSet(base, EMPTY, FROZEN_TAG)) {
+                        return DEAD;
+                    }
+                    continue;
+                }
+                if (tag <= 0) {
+                    return DEAD;
+                }
+                return slots.getAndSet(base + 3, FROZEN);
+            }
+        }
+
+        /**
+         * Insertion mono-thread pendant une reconstruction (la table n'est pas encore publiée).
+         */
+        void copy(long msb, long lsb, long tag, long last) {
+            int i = hash(msb, lsb, tag) & mask;
+            while (slots.get(i * STRIDE) != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            int base = i * STRIDE;
+            slots.set(base + 1, msb);
+            slots.set(base + 2, lsb);
+            slots.set(base + 3, last);
+            slots.set(base, tag);
+            used.incrementAndGet();
+        }
+
+        private static int hash(long msb, long lsb, long tag) {
+            long h = msb * 0x9E3779B97F4A7C15L ^ lsb ^ tag * 0xC2B2AE3D27D4EB4FL;
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            return (int) h;
+        }
+    }
 }
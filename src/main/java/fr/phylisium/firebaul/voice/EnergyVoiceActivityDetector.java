@@ -0,0 +1,76 @@
+package fr.phylisium.firebaul.keyword;
+
+/**
+ * VAD simple basée sur l'énergie RMS et le taux de passage par zéro.
+ * Une trame est de la parole si son énergie dépasse le seuil, ou si elle est un peu en dessous
+ * mais avec un taux de passage par zéro élevé (consonnes sourdes : s, f, ch...).
+ * Après la dernière trame de parole, le hangover maintient l'état "parole" quelques centaines de
+ * millisecondes pour ne pas couper les pauses entre deux mots.
+ */
+public class EnergyVoiceActivityDetector implements VoiceActivityDetector {
+    private static final double FULL_SCALE = 32768.0;
+
+    private final double energyThreshold;
+    private final double weakEnergyThreshold;
+    private final double zeroCrossingThreshold;
+    private final long hangoverSamples;
+
+    private long silentSamples;
+    private boolean speaking;
+
+    /**
+     * @param thresholdDb        énergie minimale (dBFS) d'une trame de parole, ex. -45
+     * @param weakMarginDb       marge sous le seuil acceptée si le taux de passage par zéro est élevé
+     * @param zeroCrossingRate   taux de passage par zéro (0..1) au-delà duquel une trame faible compte comme parole
+     * @param hangoverMs         durée pendant laquelle la parole est prolongée après la dernière trame active
+     * @param sampleRate         fréquence des échantillons analysés
+     */
+    public EnergyVoiceActivityDetector(double thresholdDb, double weakMarginDb, double zeroCrossingRate, long hangoverMs, int sampleRate) {
+        this.energyThreshold = dbToLinear(thresholdDb);
+        this.weakEnergyThreshold = dbToLinear(thresholdDb - Math.max(0, weakMarginDb));
+        this.zeroCrossingThreshold = zeroCrossingRate;
+        this.hangoverSamples = Math.max(0, hangoverMs) * sampleRate / 1000L;
+    }
+
+    @Override
+    public boolean isSpeech(short[] samples, int length) {
+        if (samples == null || length <= 0) {
+            return speaking;
+        }
+        long sumSquares = 0;
+        int crossings = 0;
+        short prev = samples[0];
+        for (int i = 0; i < length; i++) {
+            short s = samples[i];
+            sumSquares += (long) s * s;
+            if ((s ^ prev) < 0) {
+                crossings++;
+            }
+            prev = s;
+        }
+        double rms = Math.sqrt((double) sumSquares / length) / FULL_SCALE;
+        double zcr = (double) crossings / length;
+
+        boolean active = rms >= energyThreshold || (rms >= weakEnergyThreshold && zcr >= zeroCrossingThreshold);
+        if (active) {
+            silentSamples = 0;
+            speaking = true;
+        } else if (speaking) {
+            silentSamples += length;
+            if (silentSamples > hangoverSamples) {
+                speaking = false;
+            }
+        }
+        return speaking;
+    }
+
+    @Override
+    public void reset() {
+        silentSamples = 0;
+        speaking = false;
+    }
+
+    private static double dbToLinear(double db) {
+        return Math.pow(10.0, db / 20.0);
+    }
+}
@@ -0,0 +1,16 @@
+package fr.phylisium.firebaul.keyword;
+
+import java.util.UUID;
+
+/**
+ * Notifié à chaque déclenchement de mot-clé accepté par le debounce, sur le thread de reconnaissance,
+ * avant le passage sur le thread principal. Sert à la mesure (harnais de rejeu, métriques) :
+ * l'implémentation doit être rapide et ne pas bloquer.
+ */
+public interface KeywordTriggerObserver {
+    /**
+     * @param reason    origine du déclenchement (partiel stable ou résultat final)
+     * @param nanoTime  instant du déclenchement, base {@link System#nanoTime()}
+     */
+    void onTrigger(UUID playerId, String keyword, String reason, long nanoTime);
+}
@@ -0,0 +1,128 @@
+package fr.phylisium.firebaul.keyword;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme log-linéaire à la HdrHistogram : valeurs exactes de 0 à 31, puis 16 cases par
+ * puissance de deux (erreur relative bornée à ~6 %) jusqu'à {@link Long#MAX_VALUE}.
+ * Enregistrer une valeur coûte un incrément atomique, sans allocation ni verrou ; la mémoire est fixe
+ * (960 compteurs). Les lectures ({@link #snapshot()}) sont faites hors du chemin critique.
+ */
+public class LogLinearHistogram {
+    private static final int LINEAR = 32;
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int FIRST_EXPONENT = 5;
+    private static final int BUCKETS = LINEAR + (63 - FIRST_EXPONENT) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(indexOf(value));
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        sum.reset();
+        max.reset();
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        // compté sur la copie des cases : le total reste cohérent avec les percentiles
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, sum.sum(), max.get());
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        int sub = (int) (value >>> shift) - SUB;
+        return LINEAR + (exponent - FIRST_EXPONENT) * SUB + sub;
+    }
+
+    /**
+     * Plus grande valeur ramenée dans la case {@code index}.
+     */
+    static long upperBound(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        int j = index - LINEAR;
+        int exponent = j / SUB + FIRST_EXPONENT;
+        long mantissa = j % SUB + SUB;
+        int shift = exponent - SUB_BITS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * Copie figée de l'histogramme.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Valeur sous laquelle se trouvent {@code percentile} % des échantillons (borne haute de la case).
+         */
+        public long getPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return "n=" + count + " mean=" + Math.round(getMean()) + " p50=" + getPercentile(50) + " p90=" + getPercentile(90)
+                    + " p99=" + getPercentile(99) + " max=" + max;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package fr.phylisium.firebaul.keyword;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Relit un fichier écrit par {@link OpusCaptureWriter} : suite de {@code [long horodatage µs][u16 longueur][trame]}.
+ * Seul lecteur du format, partagé par le harnais de rejeu et les benchmarks.
+ */
+public final class OpusCaptureReader {
+
+    private OpusCaptureReader() {
+    }
+
+    /**
+     * Passe chaque trame du fichier à {@code consumer}, dans l'ordre d'enregistrement, et retourne leur nombre.
+     * Une fin de fichier au milieu d'une trame (capture interrompue) lève une {@link EOFException}.
+     */
+    public static int read(Path path, FrameConsumer consumer) throws IOException {
+        int count = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path)); DataInputStream data = new DataInputStream(in)) {
+            while (true) {
+                long timestampMicros;
+                try {
+                    timestampMicros = data.readLong();
+                } catch (EOFException end) {
+                    break;
+                }
+                byte[] frame = new byte[data.readUnsignedShort()];
+                data.readFully(frame);
+                consumer.accept(timestampMicros, frame);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    public interface FrameConsumer {
+        void accept(long timestampMicros, byte[] frame);
+    }
+}
@@ -0,0 +1,100 @@
+package fr.phylisium.firebaul.keyword;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Enregistre les trames Opus reçues, un fichier par joueur, pour les rejouer hors ligne.
+ * Format : suite de {@code [long horodatage µs][u16 longueur][trame]} (big-endian, DataOutputStream),
+ * l'horodatage étant relatif à la première trame du fichier. Relu par {@link OpusCaptureReader}.
+ */
+public class OpusCaptureWriter {
+    private final File directory;
+    private final Logger logger;
+    private final Map<UUID, Capture> captures = new ConcurrentHashMap<>();
+    private volatile boolean failed;
+
+    public OpusCaptureWriter(File directory, Logger logger) {
+        this.directory = directory;
+        this.logger = logger;
+    }
+
+    /**
+     * Ajoute une trame au fichier du joueur (appelé depuis le thread réseau du voice chat).
+     */
+    public void record(UUID playerId, byte[] opus) {
+        if (failed || opus == null || opus.length > 0xFFFF) {
+            return;
+        }
+        Capture capture = captures.computeIfAbsent(playerId, this::open);
+        if (capture == null) {
+            return;
+        }
+        synchronized (capture) {
+            if (capture.closed) {
+                return;
+            }
+            try {
+                capture.out.writeLong(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - capture.startNanos));
+                capture.out.writeShort(opus.length);
+                capture.out.write(opus);
+            } catch (IOException e) {
+                logger.warning("Unable to write opus capture for " + playerId + ": " + e.getMessage());
+                close(playerId);
+            }
+        }
+    }
+
+    public void close(UUID playerId) {
+        Capture capture = captures.remove(playerId);
+        if (capture == null) {
+            return;
+        }
+        synchronized (capture) {
+            capture.closed = true;
+            try {
+                capture.out.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    public void closeAll() {
+        for (UUID playerId : captures.keySet()) {
+            close(playerId);
+        }
+    }
+
+    private Capture open(UUID playerId) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            logger.warning("Unable to create opus capture directory " + directory.getAbsolutePath() + " - capture disabled");
+            failed = true;
+            return null;
+        }
+        File file = new File(directory, playerId + "-" + System.currentTimeMillis() + ".opuscap");
+        try {
+            return new Capture(new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))));
+        } catch (IOException e) {
+            logger.warning("Unable to open opus capture " + file.getAbsolutePath() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static final class Capture {
+        final DataOutputStream out;
+        final long startNanos = System.nanoTime();
+        boolean closed;
+
+        Capture(DataOutputStream out) {
+            this.out = out;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package fr.phylisium.firebaul.keyword;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * File circulaire bornée de trames Opus pour un joueur.
+ * Quand le recognizer ne suit plus, la politique de débordement choisit quelle trame sacrifier :
+ * la latence de reconnaissance se dégrade mais la mémoire reste constante.
+ */
+public class OpusFrameBuffer {
+    public enum OverflowPolicy {
+        /** Jette la trame la plus ancienne pour garder l'audio le plus récent. */
+        DROP_OLDEST,
+        /** Refuse la trame entrante. */
+        DROP_NEWEST,
+        /**
+         * Fusionne les trames de silence consécutives et sacrifie d'abord le silence en attente,
+         * puis retombe sur DROP_OLDEST si la file ne contient que de la parole.
+         */
+        COALESCE_SILENCE;
+
+        public static OverflowPolicy fromConfig(String value, OverflowPolicy fallback) {
+            if (value == null) {
+                return fallback;
+            }
+            try {
+                return OverflowPolicy.valueOf(value.trim().toUpperCase().replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                return fallback;
+            }
+        }
+    }
+
+    private final byte[][] frames;
+    private final OverflowPolicy policy;
+    private final int silenceFrameBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    private int head;
+    private int size;
+
+    private final LongAdder droppedOldest = new LongAdder();
+    private final LongAdder droppedNewest = new LongAdder();
+    private final LongAdder coalescedSilence = new LongAdder();
+
+    /**
+     * @param capacity          nombre maximum de trames en attente
+     * @param policy            politique appliquée quand la file est pleine
+     * @param silenceFrameBytes taille (octets) en dessous de laquelle une trame Opus est considérée
+     *                          comme du silence/DTX
+     */
+    public OpusFrameBuffer(int capacity, OverflowPolicy policy, int silenceFrameBytes) {
+        this.frames = new byte[Math.max(1, capacity)][];
+        this.policy = policy != null ? policy : OverflowPolicy.DROP_OLDEST;
+        this.silenceFrameBytes = Math.max(0, silenceFrameBytes);
+    }
+
+    /**
+     * Ajoute une trame. Retourne false si la trame entrante a été refusée (DROP_NEWEST ou silence fusionné) ;
+     * une trame ancienne sacrifiée pour lui faire de la place n'est visible que dans les compteurs.
+     */
+    public boolean offer(byte[] frame) {
+        lock.lock();
+        try {
+            if (size == frames.length && !makeRoom(frame)) {
+                return false;
+            }
+            frames[(head + size) % frames.length] = frame;
+            size++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public byte[] poll() {
+        lock.lock();
+        try {
+            return size == 0 ? null : removeFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public byte[] poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (nanos <= 0L) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return removeFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return size == 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return frames.length;
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            while (size > 0) {
+                removeFirst();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDroppedFrames() {
+        return droppedOldest.sum() + droppedNewest.sum() + coalescedSilence.sum();
+    }
+
+    public long getDroppedOldest() {
+        return droppedOldest.sum();
+    }
+
+    public long getDroppedNewest() {
+        return droppedNewest.sum();
+    }
+
+    public long getCoalescedSilence() {
+        return coalescedSilence.sum();
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    // --- appelé sous verrou, file pleine ---
+
+    private boolean makeRoom(byte[] incoming) {
+        switch (policy) {
+            case DROP_NEWEST -> {
+                droppedNewest.increment();
+                return false;
+            }
+            case COALESCE_SILENCE -> {
+                if (isSilence(incoming) && isSilence(frames[(head + size - 1) % frames.length])) {
+                    coalescedSilence.increment();
+                    return false;
+                }
+                if (removeOldestSilence()) {
+                    coalescedSilence.increment();
+                    return true;
+                }
+                removeFirst();
+                droppedOldest.increment();
+                return true;
+            }
+            default -> {
+                removeFirst();
+                droppedOldest.increment();
+                return true;
+            }
+        }
+    }
+
+    private boolean removeOldestSilence() {
+        for (int i = 0; i < size; i++) {
+            int idx = (head + i) % frames.length;
+            if (isSilence(frames[idx])) {
+                // décale les trames suivantes d'un cran vers la tête
+                for (int j = i; j < size - 1; j++) {
+                    frames[(head + j) % frames.length] = frames[(head + j + 1) % frames.length];
+                }
+                frames[(head + size - 1) % frames.length] = null;
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private byte[] removeFirst() {
+        byte[] frame = frames[head];
+        frames[head] = null;
+        head = (head + 1) % frames.length;
+        size--;
+        return frame;
+    }
+
+    private boolean isSilence(byte[] frame) {
+        return frame == null || frame.length <= silenceFrameBytes;
+    }
+}
@@ -1,13 +1,11 @@
 package fr.phylisium.firebaul.keyword;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import fr.phylisium.firebaul.Firebaul;
+import fr.phylisium.firebaul.keyword.SpeechEventLog.Category;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
-import org.vosk.Model;
+import org.bukkit.plugin.Plugin;
+import org.slf4j.event.Level;
 
 import java.time.Duration;
 import java.util.HashMap;
@@ -18,96 +16,393 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 public class PlayerRecognition implements Runnable {
     private static final String PARTIAL_FIELD = "partial";
     private static final String TEXT_FIELD = "text";
 
     private final UUID playerId;
-    private final Firebaul plugin;
-    private final BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>();
+    private final Plugin plugin;
+    private static final long DROP_WARN_EVERY = 500;
+    // nouvel essai de prêt après un échec : 500 ms, doublé à chaque échec, plafonné à 30 s
+    private static final long LEASE_RETRY_BASE_MS = 500;
+    private static final long LEASE_RETRY_MAX_MS = 30_000;
+
+    private final OpusFrameBuffer queue;
+    private long lastDropWarned;
     private final Thread worker;
+    private final RecognitionScheduler scheduler;
     private final AtomicBoolean running = new AtomicBoolean(true);
 
+    // Mode pool : vrai tant qu'une tâche de la session est planifiée ou en cours,
+    // garantit qu'un seul thread du pool manipule le recognizer à la fois.
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final AtomicBoolean flushArmed = new AtomicBoolean(false);
+    private volatile boolean pendingFlush;
+    private volatile long lastFrameNanos;
+    private volatile long lastActivityNanos = System.nanoTime();
+
     private final KeywordRegistry keywordRegistry;
-    private final Gson gson;
     private final DebounceService debounceService;
     private final ActionBarFormatter formatter;
+    private final ActionBarDispatcher actionBarDispatcher;
+    private final Executor mainThread;
+    private final KeywordTriggerObserver triggerObserver;
+    private final SpeechMetrics metrics;
+    private final SpeechEventLog eventLog;
 
     private final Duration pollInterval;
     private final int stabilityThreshold;
     private final Duration debounceDuration;
 
+    private volatile RecognizerPool recognizerPool;
+    // pool du nouveau modèle, adopté à la prochaine frontière d'énoncé
+    private volatile RecognizerPool pendingPool;
     private AudioRecognizer audioRecognizer;
+    // pool vide à la création : recognizer préparé en arrière-plan, adopté par le worker de la session
+    private final AtomicReference<AudioRecognizer> pendingRecognizer = new AtomicReference<>();
+    // prêt en cours ; après un échec, la session reste en place et retente à leaseRetryAtNanos
+    private final AtomicBoolean leaseInFlight = new AtomicBoolean();
+    private volatile boolean leaseFailed;
+    private volatile long leaseRetryAtNanos;
+    private int leaseFailures;
+    private final VoiceActivityDetector vad;
+    // trames écartées juste avant le déclenchement de la VAD, rejouées au début de l'énoncé
+    private final PreRollBuffer preRoll;
+    private final KeywordGrammar grammar;
+    private boolean inUtterance;
     private final Map<String, Integer> partialCounts = new ConcurrentHashMap<>();
+    // première apparition (nanoTime) de chaque mot-clé dans les partiels de l'énoncé en cours
+    private final Map<String, Long> partialFirstSeen = new HashMap<>();
+    private final IncrementalKeywordMatcher incrementalMatcher;
+    private Map<String, KeywordRegistry.Match> lastKeywordToMatch = Map.of();
 
     public PlayerRecognition(UUID playerId,
-                             Firebaul plugin,
-                             Model model,
+                             Plugin plugin,
+                             RecognizerPool recognizerPool,
                              KeywordRegistry keywordRegistry,
-                             Gson gson,
                              DebounceService debounceService,
                              ActionBarFormatter formatter,
+                             ActionBarDispatcher actionBarDispatcher,
+                             Executor mainThread,
+                             KeywordTriggerObserver triggerObserver,
+                             SpeechMetrics metrics,
+                             SpeechEventLog eventLog,
                              Duration pollInterval,
                              int stabilityThreshold,
-                             Duration debounceDuration) {
+                             Duration debounceDuration,
+                             RecognitionScheduler scheduler,
+                             OpusFrameBuffer queue,
+                             VoiceActivityDetector vad,
+                             int preRollFrames,
+                             KeywordGrammar grammar,
+                             boolean incrementalMatching) {
         this.playerId = playerId;
         this.plugin = Objects.requireNonNull(plugin, "plugin");
         this.keywordRegistry = keywordRegistry;
-        this.gson = gson;
         this.debounceService = debounceService;
         this.formatter = formatter;
+        this.actionBarDispatcher = actionBarDispatcher;
+        this.mainThread = Objects.requireNonNull(mainThread, "mainThread");
+        this.triggerObserver = triggerObserver;
+        this.metrics = Objects.requireNonNull(metrics, "metrics");
+        this.eventLog = Objects.requireNonNull(eventLog, "eventLog");
         this.pollInterval = pollInterval != null ? pollInterval : Duration.ofMillis(100);
         this.stabilityThreshold = stabilityThreshold;
         this.debounceDuration = debounceDuration != null ? debounceDuration : Duration.ofMillis(1000);
+        this.scheduler = scheduler;
+        this.queue = Objects.requireNonNull(queue, "queue");
+        this.vad = vad;
+        this.preRoll = new PreRollBuffer(vad == null ? 0 : preRollFrames);
+        if (vad != null) {
+            // la fabrique peut rendre une instance déjà utilisée par une session précédente
+            vad.reset();
+        }
+        this.grammar = grammar;
+        this.incrementalMatcher = incrementalMatching ? new IncrementalKeywordMatcher(keywordRegistry) : null;
+        this.recognizerPool = Objects.requireNonNull(recognizerPool, "recognizerPool");
 
-        this.worker = new Thread(this, "speech-recog-" + playerId);
-        this.worker.setDaemon(true);
+        if (scheduler == null) {
+            this.worker = new Thread(this, "speech-recog-" + playerId);
+            this.worker.setDaemon(true);
+        } else {
+            this.worker = null;
+        }
 
-        try {
-            this.audioRecognizer = new AudioRecognizer(model);
-        } catch (Exception e) {
-            this.plugin.getLogger().severe("Failed to init audio recognizer: " + e.getMessage());
-            this.running.set(false);
+        CompletableFuture<AudioRecognizer> lease = recognizerPool.leaseAsync();
+        if (lease.isDone() && !lease.isCompletedExceptionally()) {
+            this.audioRecognizer = lease.join();
+            refreshGrammar();
+        } else {
+            // les trames s'accumulent dans la file jusqu'à l'arrivée du recognizer
+            leaseInFlight.set(true);
+            lease.whenComplete((recognizer, error) -> onRecognizerLeased(recognizerPool, recognizer, error));
         }
 
-        if (this.running.get()) {
+        if (this.running.get() && this.worker != null) {
             this.worker.start();
         }
     }
 
+    private void onRecognizerLeased(RecognizerPool pool, AudioRecognizer recognizer, Throwable error) {
+        if (error != null) {
+            // la session garde sa file et retente plus tard : pas de nouvelle session ni de log par trame
+            leaseFailures++;
+            long backoffMs = Math.min(LEASE_RETRY_MAX_MS, LEASE_RETRY_BASE_MS << Math.min(leaseFailures - 1, 10));
+            leaseRetryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs);
+            leaseFailed = true;
+            leaseInFlight.set(false);
+            plugin.getLogger().severe("Failed to init audio recognizer for " + playerId + " (attempt " + leaseFailures
+                    + "): " + error.getMessage() + " - retrying in " + backoffMs + " ms");
+            return;
+        }
+        leaseFailures = 0;
+        pendingRecognizer.set(recognizer);
+        leaseInFlight.set(false);
+        if (!running.get()) {
+            // session fermée pendant la création : le recognizer retourne au pool
+            AudioRecognizer orphan = pendingRecognizer.getAndSet(null);
+            if (orphan != null) {
+                pool.release(orphan);
+            }
+            return;
+        }
+        if (scheduler != null) {
+            signal();
+        }
+    }
+
+    /**
+     * Relance le prêt d'un recognizer après un échec, une fois le délai d'attente écoulé. Sans recognizer
+     * le worker ne touche pas au pool : on peut donc basculer ici sur le pool d'un nouveau modèle.
+     */
+    private void retryLeaseIfDue() {
+        if (System.nanoTime() - leaseRetryAtNanos < 0 || !leaseInFlight.compareAndSet(false, true)) {
+            return;
+        }
+        leaseFailed = false;
+        RecognizerPool next = pendingPool;
+        if (next != null) {
+            pendingPool = null;
+            recognizerPool = next;
+        }
+        RecognizerPool pool = recognizerPool;
+        pool.leaseAsync().whenComplete((recognizer, error) -> onRecognizerLeased(pool, recognizer, error));
+    }
+
+    /**
+     * Worker de la session : adopte le recognizer préparé en arrière-plan s'il n'en a pas encore.
+     */
+    private boolean adoptRecognizer() {
+        if (audioRecognizer != null) {
+            return true;
+        }
+        AudioRecognizer recognizer = pendingRecognizer.getAndSet(null);
+        if (recognizer == null) {
+            return false;
+        }
+        audioRecognizer = recognizer;
+        refreshGrammar();
+        return true;
+    }
+
     public void enqueue(byte[] opus) {
         if (!running.get()) {
             return;
         }
+        lastActivityNanos = System.nanoTime();
+        long droppedBefore = queue.getDroppedFrames();
         boolean offered = queue.offer(opus);
-        if (!offered) {
-            plugin.getLogger().warning("Speech queue full for " + playerId + " - dropping frame");
+        metrics.recordFrame(queue.getDroppedFrames() - droppedBefore, queue.size());
+        warnOnDroppedFrames();
+        if (offered && scheduler != null) {
+            signal();
         }
+        if (leaseFailed) {
+            retryLeaseIfDue();
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Temps écoulé depuis la dernière trame reçue pour ce joueur.
+     */
+    public long getIdleNanos() {
+        return System.nanoTime() - lastActivityNanos;
+    }
+
+    public long getDroppedFrames() {
+        return queue.getDroppedFrames();
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Demande le passage sur le pool d'un nouveau modèle. Le recognizer courant est rendu à son pool
+     * et remplacé à la fin de l'énoncé en cours, jamais au milieu : la transcription en cours se termine
+     * sur l'ancien modèle.
+     */
+    public void migrateTo(RecognizerPool pool) {
+        pendingPool = pool;
+    }
+
+    private void warnOnDroppedFrames() {
+        long dropped = queue.getDroppedFrames();
+        if (dropped == lastDropWarned || (lastDropWarned != 0 && dropped - lastDropWarned < DROP_WARN_EVERY)) {
+            return;
+        }
+        lastDropWarned = dropped;
+        plugin.getLogger().warning("Speech queue full for " + playerId + " (" + queue.getPolicy()
+                + ") - " + dropped + " frames dropped so far");
     }
 
     public void shutdown() {
         running.set(false);
-        worker.interrupt();
-        try {
-            worker.join(2000);
-        } catch (InterruptedException ignored) {
-            Thread.currentThread().interrupt();
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(2000);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+        } else if (!acquireSession(TimeUnit.SECONDS.toNanos(2))) {
+            // ne jamais fermer le recognizer natif sous un worker encore actif
+            plugin.getLogger().warning("Speech session for " + playerId + " still busy on shutdown - leaking recognizer");
+            return;
         }
+        adoptRecognizer();
         drainQueueAndEmit();
         flushRecognizerAndEmit();
         closeResources();
     }
 
+    /**
+     * Mode pool : planifie un lot de traitement si aucune tâche n'est déjà en attente pour cette session.
+     */
+    private void signal() {
+        if (!running.get() || !scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.execute(this::drainBatch);
+        } catch (RuntimeException e) {
+            scheduled.set(false);
+            plugin.getLogger().warning("Speech scheduler rejected session " + playerId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Traite au plus {@link RecognitionScheduler#getBatchFrames()} trames puis rend le thread au pool,
+     * pour qu'un joueur bavard ne monopolise pas un worker.
+     */
+    private void drainBatch() {
+        if (!adoptRecognizer()) {
+            scheduled.set(false);
+            // le recognizer a pu arriver pendant ce passage : son signal a été absorbé par ce lot
+            if (pendingRecognizer.get() != null) {
+                signal();
+            }
+            return;
+        }
+        try {
+            int budget = scheduler.getBatchFrames();
+            byte[] opus;
+            while (budget-- > 0 && running.get() && (opus = queue.poll()) != null) {
+                if (opus.length == 0) {
+                    continue;
+                }
+                processOpusFrame(opus);
+                pendingFlush = true;
+                lastFrameNanos = System.nanoTime();
+            }
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error in speech recognition worker for " + playerId + ": " + e.getMessage());
+        } finally {
+            scheduled.set(false);
+        }
+        if (!queue.isEmpty()) {
+            signal();
+        } else if (pendingFlush) {
+            armIdleFlush(pollInterval.toNanos());
+        }
+    }
+
+    /**
+     * Remplace le poll périodique du mode dédié : un seul timer par session active, qui vide le
+     * recognizer quand plus aucune trame n'arrive depuis pollInterval. Une session silencieuse
+     * n'a ensuite plus aucune tâche planifiée.
+     */
+    private void armIdleFlush(long delayNanos) {
+        if (!running.get() || !flushArmed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.schedule(this::idleFlush, Math.max(1L, delayNanos), TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            flushArmed.set(false);
+        }
+    }
+
+    private void idleFlush() {
+        flushArmed.set(false);
+        if (!running.get() || !pendingFlush) {
+            return;
+        }
+        long idleNanos = System.nanoTime() - lastFrameNanos;
+        long pollNanos = pollInterval.toNanos();
+        if (idleNanos < pollNanos) {
+            armIdleFlush(pollNanos - idleNanos);
+            return;
+        }
+        if (!queue.isEmpty() || !scheduled.compareAndSet(false, true)) {
+            // un lot est en cours ou en attente, il réarmera le flush à la fin
+            return;
+        }
+        try {
+            pendingFlush = false;
+            flushRecognizerAndEmit();
+        } finally {
+            scheduled.set(false);
+        }
+        if (!queue.isEmpty()) {
+            signal();
+        }
+    }
+
+    /**
+     * Prend la main sur la session en mode pool (attend la fin du lot en cours).
+     */
+    private boolean acquireSession(long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (!scheduled.compareAndSet(false, true)) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(1_000_000L);
+        }
+        return true;
+    }
+
     @Override
     public void run() {
         long pollMillis = Math.max(10, pollInterval.toMillis());
         while (running.get()) {
+            if (!adoptRecognizer()) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(pollMillis));
+                continue;
+            }
             try {
                 byte[] opus = queue.poll(pollMillis, TimeUnit.MILLISECONDS);
                 if (opus == null) {
@@ -132,11 +427,30 @@ public class PlayerRecognition implements Runnable {
             return;
         }
         try {
-            byte[] pcmBytes = audioRecognizer.decodeOpusTo16kBytes(opus);
-            if (pcmBytes == null) {
+            long start = System.nanoTime();
+            int pcmLength = audioRecognizer.decodeOpusTo16k(opus);
+            metrics.recordDecode(System.nanoTime() - start);
+            if (pcmLength <= 0) {
                 return;
             }
-            boolean accepted = audioRecognizer.acceptWaveForm(pcmBytes, pcmBytes.length);
+            if (vad != null && !vad.isSpeech(audioRecognizer.getPcmSamples(), audioRecognizer.getPcmSampleCount())) {
+                // silence : pas de travail pour Vosk ; la fin du hangover marque la fin de l'énoncé
+                metrics.recordVadSkip();
+                if (inUtterance) {
+                    partialCounts.clear();
+                    flushRecognizerAndEmit();
+                }
+                preRoll.push(audioRecognizer.getPcmBuffer(), pcmLength);
+                return;
+            }
+            if (!inUtterance) {
+                inUtterance = true;
+                // début d'énoncé : l'attaque du mot est dans les trames écartées juste avant
+                preRoll.drainTo(audioRecognizer::acceptWaveForm);
+            }
+            start = System.nanoTime();
+            boolean accepted = audioRecognizer.acceptWaveForm(audioRecognizer.getPcmBuffer(), pcmLength);
+            metrics.recordAccept(System.nanoTime() - start);
             String json = accepted ? audioRecognizer.getFinalResult() : audioRecognizer.getPartialResult();
             if (accepted) {
                 partialCounts.clear();
@@ -151,14 +465,79 @@ public class PlayerRecognition implements Runnable {
     }
 
     private void resetRecognizerState() {
+        resetVoiceActivity();
         if (audioRecognizer == null) {
             return;
         }
+        if (pendingPool != null && running.get() && switchPool()) {
+            return;
+        }
         try {
             audioRecognizer.reset();
         } catch (Exception e) {
             plugin.getLogger().warning("Unable to reset recognizer: " + e.getMessage());
         }
+        refreshGrammar();
+    }
+
+    /**
+     * Frontière d'énoncé : la VAD repart de zéro (hangover, énoncé en cours, pré-roll), comme le recognizer.
+     */
+    private void resetVoiceActivity() {
+        inUtterance = false;
+        preRoll.clear();
+        if (vad != null) {
+            vad.reset();
+        }
+    }
+
+    /**
+     * Frontière d'énoncé avec une migration en attente : échange le recognizer contre une instance du
+     * nouveau pool. En cas d'échec, la session reste sur l'ancien modèle.
+     */
+    private boolean switchPool() {
+        RecognizerPool next = pendingPool;
+        pendingPool = null;
+        if (next == null || next == recognizerPool) {
+            return false;
+        }
+        AudioRecognizer fresh;
+        try {
+            fresh = next.tryLease();
+        } catch (Exception e) {
+            plugin.getLogger().warning("Unable to migrate speech session " + playerId + " to the new model: " + e.getMessage());
+            return false;
+        }
+        if (fresh == null) {
+            // nouveau pool pas encore garni : une instance s'y prépare, nouvel essai au prochain énoncé
+            if (pendingPool == null) {
+                pendingPool = next;
+            }
+            return false;
+        }
+        AudioRecognizer previous = audioRecognizer;
+        RecognizerPool previousPool = recognizerPool;
+        audioRecognizer = fresh;
+        recognizerPool = next;
+        try {
+            previousPool.release(previous);
+        } catch (Exception ignored) {
+        }
+        refreshGrammar();
+        return true;
+    }
+
+    /**
+     * Entre deux énoncés, aligne la grammaire du recognizer sur le registre si des mots-clés ont changé.
+     */
+    private void refreshGrammar() {
+        if (grammar == null || audioRecognizer == null) {
+            return;
+        }
+        long current = grammar.getVersion();
+        if (current != audioRecognizer.getGrammarVersion()) {
+            audioRecognizer.applyGrammar(grammar.getJson(), current);
+        }
     }
 
     private void drainQueueAndEmit() {
@@ -188,21 +567,37 @@ public class PlayerRecognition implements Runnable {
 
     private void handlePartialResult(String json) {
         extractJsonText(json, PARTIAL_FIELD).ifPresent(normalized -> {
-            List<KeywordRegistry.Match> matches = keywordRegistry.findAllMatches(normalized);
-            if (debounceService.isDebug()) {
-                plugin.getLogger().info("[Speech][DBG] partial='" + normalized + "' matches=" + matches);
+            List<KeywordRegistry.Match> matches;
+            boolean changed;
+            if (incrementalMatcher != null) {
+                matches = incrementalMatcher.update(normalized);
+                changed = incrementalMatcher.isChanged();
+            } else {
+                matches = keywordRegistry.findAllMatches(normalized);
+                changed = true;
+            }
+            if (changed) {
+                eventLog.at(Category.PARTIAL, Level.DEBUG, playerId)
+                        .setMessage("partial player={} text='{}' matches={}")
+                        .addArgument(playerId).addArgument(normalized).addArgument(matches)
+                        .log();
+                // un partiel identique au précédent a déjà été affiché
+                showActionBar(normalized, matches);
+                lastKeywordToMatch = buildKeywordToMatch(matches);
             }
-            showActionBar(normalized, matches);
 
-            Map<String, KeywordRegistry.Match> matched = buildKeywordToMatch(matches);
+            Map<String, KeywordRegistry.Match> matched = lastKeywordToMatch;
+            long now = System.nanoTime();
             for (Map.Entry<String, KeywordRegistry.Match> entry : matched.entrySet()) {
                 String key = entry.getKey();
                 KeywordRegistry.Match triggerMatch = entry.getValue();
+                partialFirstSeen.putIfAbsent(key, now);
                 int count = partialCounts.getOrDefault(key, 0) + 1;
                 partialCounts.put(key, count);
-                if (debounceService.isDebug()) {
-                    plugin.getLogger().info("[Speech][DBG] partialCount '" + key + "' -> " + count);
-                }
+                eventLog.at(Category.PARTIAL, Level.TRACE, playerId)
+                        .setMessage("partial_count player={} keyword={} count={}")
+                        .addArgument(playerId).addArgument(key).addArgument(count)
+                        .log();
                 if (count >= stabilityThreshold) {
                     if (triggerKeyword(triggerMatch, key, "(partial)")) {
                         partialCounts.put(key, 0);
@@ -210,15 +605,21 @@ public class PlayerRecognition implements Runnable {
                 }
             }
             partialCounts.keySet().removeIf(key -> !matched.containsKey(key));
+            partialFirstSeen.keySet().removeIf(key -> !matched.containsKey(key));
         });
     }
 
     private void handleFinalResult(String json) {
+        if (incrementalMatcher != null) {
+            incrementalMatcher.reset();
+        }
+        lastKeywordToMatch = Map.of();
         extractJsonText(json, TEXT_FIELD).ifPresent(normalized -> {
             List<KeywordRegistry.Match> matches = keywordRegistry.findAllMatches(normalized);
-            if (debounceService.isDebug()) {
-                plugin.getLogger().info("[Speech][DBG] final='" + normalized + "' matches=" + matches);
-            }
+            eventLog.at(Category.FINAL, Level.DEBUG, playerId)
+                    .setMessage("final player={} text='{}' matches={}")
+                    .addArgument(playerId).addArgument(normalized).addArgument(matches)
+                    .log();
             showActionBar(normalized, matches);
 
             Set<String> triggered = new HashSet<>();
@@ -232,32 +633,11 @@ public class PlayerRecognition implements Runnable {
                 }
             }
         });
+        partialFirstSeen.clear();
     }
 
     private Optional<String> extractJsonText(String json, String field) {
-        if (json == null || json.isEmpty()) {
-            return Optional.empty();
-        }
-        try {
-            JsonObject obj = gson.fromJson(json, JsonObject.class);
-            if (!obj.has(field)) {
-                return Optional.empty();
-            }
-            JsonElement element = obj.get(field);
-            if (element == null || element.isJsonNull()) {
-                return Optional.empty();
-            }
-            String text = element.getAsString();
-            if (text == null || text.isBlank()) {
-                return Optional.empty();
-            }
-            return Optional.of(text.trim());
-        } catch (Exception e) {
-            if (debounceService.isDebug()) {
-                plugin.getLogger().warning("Unable to parse Vosk JSON: " + e.getMessage());
-            }
-            return Optional.empty();
-        }
+        return Optional.ofNullable(VoskJsonExtractor.extract(json, field));
     }
 
     private Map<String, KeywordRegistry.Match> buildKeywordToMatch(List<KeywordRegistry.Match> matches) {
@@ -273,7 +653,7 @@ public class PlayerRecognition implements Runnable {
     }
 
     private void showActionBar(String text, List<KeywordRegistry.Match> matches) {
-        Component component = formatter.formatForActionBar(text, matches);
+        Component component = formatter.formatForActionBar(playerId, text, matches);
         sendActionBarComponent(component);
     }
 
@@ -281,28 +661,31 @@ public class PlayerRecognition implements Runnable {
         if (comp == null) {
             return;
         }
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            Player player = Bukkit.getPlayer(playerId);
-            if (player != null && player.isOnline()) {
-                player.sendActionBar(comp);
-            }
-        });
+        actionBarDispatcher.publish(playerId, comp);
     }
 
     private boolean triggerKeyword(KeywordRegistry.Match match, String key, String reason) {
         if (match == null) {
             return false;
         }
-        if (!debounceService.canTrigger(playerId, key, debounceDuration.toMillis())) {
+        if (!debounceService.tryAcquire(playerId, debounceService.keywordId(key), debounceDuration.toMillis())) {
+            metrics.recordDebounceRejection();
             return false;
         }
-        debounceService.recordTrigger(playerId, key);
-        Bukkit.getScheduler().runTask(plugin, () -> {
+        Long firstSeen = partialFirstSeen.remove(key);
+        metrics.recordTrigger(firstSeen == null ? -1 : System.nanoTime() - firstSeen);
+        if (triggerObserver != null) {
+            triggerObserver.onTrigger(playerId, key, reason, System.nanoTime());
+        }
+        mainThread.execute(() -> {
             Player player = Bukkit.getPlayer(playerId);
             if (player == null || !player.isOnline()) {
                 return;
             }
-            plugin.getLogger().info("[Speech] trigger '" + key + "' for " + player.getName() + " @ " + System.currentTimeMillis() + " " + reason);
+            eventLog.at(Category.TRIGGER, Level.INFO, playerId)
+                    .setMessage("trigger keyword={} player={} reason={}")
+                    .addArgument(key).addArgument(player::getName).addArgument(reason)
+                    .log();
             try {
                 match.action.getHandler().accept(player);
             } catch (Exception ex) {
@@ -313,9 +696,14 @@ public class PlayerRecognition implements Runnable {
     }
 
     private void closeResources() {
-        if (audioRecognizer != null) {
+        AudioRecognizer recognizer = audioRecognizer;
+        audioRecognizer = null;
+        if (recognizer == null) {
+            recognizer = pendingRecognizer.getAndSet(null);
+        }
+        if (recognizer != null) {
             try {
-                audioRecognizer.close();
+                recognizerPool.release(recognizer);
             } catch (Exception ignored) {
             }
         }
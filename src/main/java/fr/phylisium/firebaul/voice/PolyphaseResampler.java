@@ -0,0 +1,123 @@
+package fr.phylisium.firebaul.keyword;
+
+import java.util.Arrays;
+
+/**
+ * Décimateur polyphase à facteur entier (48 kHz -> 16 kHz pour la voix).
+ * Un filtre passe-bas FIR (sinc fenêtré Blackman) supprime les fréquences au-dessus de la
+ * nouvelle fréquence de Nyquist avant décimation ; seuls les échantillons de sortie conservés
+ * sont calculés. L'historique du filtre est conservé entre deux trames, et tous les buffers
+ * sont réutilisés : aucune allocation par trame une fois la taille de trame stabilisée.
+ * Non thread-safe : une instance par session.
+ */
+public class PolyphaseResampler {
+    private final int factor;
+    private final float[] taps;
+    private final int history;
+
+    private float[] buffer;
+    private int available;
+    private int next;
+
+    /**
+     * @param inputRate  fréquence d'entrée (Hz), multiple entier de outputRate
+     * @param outputRate fréquence de sortie (Hz)
+     * @param tapsPerPhase longueur du filtre par phase ; la longueur totale vaut tapsPerPhase * facteur
+     */
+    public PolyphaseResampler(int inputRate, int outputRate, int tapsPerPhase) {
+        if (outputRate <= 0 || inputRate % outputRate != 0) {
+            throw new IllegalArgumentException("Unsupported resampling ratio " + inputRate + " -> " + outputRate);
+        }
+        this.factor = inputRate / outputRate;
+        // coupure à 90% de la nouvelle fréquence de Nyquist pour garder la bande vocale utile
+        double cutoff = 0.9 * (outputRate / 2.0) / inputRate;
+        this.taps = designLowPass(Math.max(1, tapsPerPhase) * factor, cutoff);
+        this.history = taps.length - 1;
+        this.buffer = new float[history + 1024];
+        reset();
+    }
+
+    /**
+     * Nombre maximum d'échantillons produits pour inputLength échantillons d'entrée.
+     */
+    public int maxOutputLength(int inputLength) {
+        return inputLength / factor + 1;
+    }
+
+    /**
+     * Filtre et décime {@code inputLength} échantillons dans {@code output}.
+     *
+     * @return nombre d'échantillons écrits dans output
+     */
+    public int process(short[] input, int inputLength, short[] output) {
+        ensureCapacity(available + inputLength);
+        float[] buf = buffer;
+        for (int i = 0; i < inputLength; i++) {
+            buf[available + i] = input[i];
+        }
+        available += inputLength;
+
+        float[] h = taps;
+        int written = 0;
+        while (next < available) {
+            float acc = 0f;
+            for (int k = 0, idx = next; k < h.length; k++, idx--) {
+                acc += h[k] * buf[idx];
+            }
+            int sample = Math.round(acc);
+            if (sample > Short.MAX_VALUE) sample = Short.MAX_VALUE;
+            else if (sample < Short.MIN_VALUE) sample = Short.MIN_VALUE;
+            output[written++] = (short) sample;
+            next += factor;
+        }
+
+        // garder uniquement l'historique nécessaire au prochain appel
+        int shift = available - history;
+        System.arraycopy(buf, shift, buf, 0, history);
+        available = history;
+        next -= shift;
+        return written;
+    }
+
+    public void reset() {
+        Arrays.fill(buffer, 0f);
+        available = history;
+        next = history;
+    }
+
+    public int getFactor() {
+        return factor;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed > buffer.length) {
+            float[] grown = new float[needed];
+            System.arraycopy(buffer, 0, grown, 0, available);
+            buffer = grown;
+        }
+    }
+
+    private static float[] designLowPass(int length, double cutoff) {
+        float[] h = new float[length];
+        if (length == 1) {
+            h[0] = 1f;
+            return h;
+        }
+        double mid = (length - 1) / 2.0;
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            double x = i - mid;
+            double sinc = x == 0 ? 2 * cutoff : Math.sin(2 * Math.PI * cutoff * x) / (Math.PI * x);
+            double window = 0.42 - 0.5 * Math.cos(2 * Math.PI * i / (length - 1))
+                    + 0.08 * Math.cos(4 * Math.PI * i / (length - 1));
+            double v = sinc * window;
+            h[i] = (float) v;
+            sum += v;
+        }
+        // gain unitaire en continu
+        for (int i = 0; i < length; i++) {
+            h[i] = (float) (h[i] / sum);
+        }
+        return h;
+    }
+}
@@ -0,0 +1,72 @@
+package fr.phylisium.firebaul.keyword;
+
+/**
+ * Anneau des dernières trames PCM écartées par la VAD. La détection ne se déclenche qu'après
+ * l'attaque d'un mot ; rejouer ces trames devant la première trame de parole rend à Vosk le début
+ * du premier phonème. Les buffers sont alloués une fois, une instance par session.
+ */
+public class PreRollBuffer {
+    private final byte[][] frames;
+    private final int[] lengths;
+    private int next;
+    private int size;
+
+    /**
+     * @param capacity nombre de trames conservées (0 = désactivé)
+     */
+    public PreRollBuffer(int capacity) {
+        this.frames = new byte[Math.max(0, capacity)][];
+        this.lengths = new int[frames.length];
+    }
+
+    public int capacity() {
+        return frames.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copie {@code length} octets de {@code pcm} dans l'anneau, en écrasant la plus ancienne trame s'il est plein.
+     */
+    public void push(byte[] pcm, int length) {
+        if (frames.length == 0 || length <= 0) {
+            return;
+        }
+        byte[] slot = frames[next];
+        if (slot == null || slot.length < length) {
+            slot = new byte[length];
+            frames[next] = slot;
+        }
+        System.arraycopy(pcm, 0, slot, 0, length);
+        lengths[next] = length;
+        next = (next + 1) % frames.length;
+        if (size < frames.length) {
+            size++;
+        }
+    }
+
+    /**
+     * Remet les trames conservées, de la plus ancienne à la plus récente, puis vide l'anneau.
+     */
+    public void drainTo(FrameConsumer consumer) {
+        int start = (next - size + frames.length) % Math.max(1, frames.length);
+        int count = size;
+        clear();
+        for (int i = 0; i < count; i++) {
+            int index = (start + i) % frames.length;
+            consumer.accept(frames[index], lengths[index]);
+        }
+    }
+
+    public void clear() {
+        size = 0;
+        next = 0;
+    }
+
+    @FunctionalInterface
+    public interface FrameConsumer {
+        void accept(byte[] pcm, int length);
+    }
+}
@@ -0,0 +1,89 @@
+package fr.phylisium.firebaul.keyword;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool de threads partagé par toutes les sessions de reconnaissance en mode {@link Mode#POOLED}.
+ * Le nombre de threads est fixe (par défaut le nombre de coeurs) : une session n'occupe un thread
+ * que lorsqu'elle a des trames à traiter, et une session inactive ne consomme aucun réveil.
+ */
+public class RecognitionScheduler {
+    public enum Mode {
+        /** Un thread dédié par joueur (comportement historique). */
+        DEDICATED,
+        /** Toutes les sessions multiplexées sur un pool de taille fixe. */
+        POOLED;
+
+        public static Mode fromConfig(String value, Mode fallback) {
+            if (value == null) {
+                return fallback;
+            }
+            try {
+                return Mode.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return fallback;
+            }
+        }
+    }
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final int batchFrames;
+
+    public RecognitionScheduler(int threads, int batchFrames) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ScheduledThreadPoolExecutor(size, new WorkerThreadFactory());
+        this.executor.setRemoveOnCancelPolicy(true);
+        this.executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.batchFrames = Math.max(1, batchFrames);
+    }
+
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return executor.schedule(task, delay, unit);
+    }
+
+    /**
+     * Nombre maximum de trames traitées par une session avant de rendre la main aux autres.
+     */
+    public int getBatchFrames() {
+        return batchFrames;
+    }
+
+    public int getPoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(2, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "speech-recog-worker-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package fr.phylisium.firebaul.keyword;
+
+import org.vosk.Model;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Pool d'{@link AudioRecognizer} préchauffés pour un modèle Vosk.
+ * Créer un recognizer alloue un décodeur Opus et un Recognizer natifs : le faire au premier mot
+ * d'un joueur, sur le thread réseau du voice chat, provoque un à-coup visible. Le pool crée ces
+ * instances au chargement du modèle, les prête aux sessions, les remet à zéro au retour et libère
+ * les instances inactives quand la mémoire du serveur devient tendue. Un prêt ne crée jamais
+ * d'instance sur le thread appelant : pool vide, la création part sur l'exécuteur de préchauffage.
+ * Lors d'un changement de modèle, l'ancien pool est retiré ({@link #retire}) : il ne prête plus rien
+ * et signale le retour de sa dernière instance, moment où son modèle peut être libéré.
+ */
+public class RecognizerPool {
+    private final Model model;
+    private final KeywordGrammar grammar;
+    private final Logger logger;
+    private final Executor warmupExecutor;
+    private final int prewarm;
+    private final int maxIdle;
+
+    private final Deque<AudioRecognizer> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicBoolean refillScheduled = new AtomicBoolean();
+    private final AtomicBoolean drained = new AtomicBoolean();
+    private volatile boolean closed;
+    private volatile Runnable onDrained;
+
+    /**
+     * @param grammar        grammaire des recognizers créés, ou null pour le vocabulaire libre
+     * @param warmupExecutor exécuteur (hors thread principal) utilisé pour recompléter le pool
+     * @param prewarm        nombre d'instances gardées prêtes
+     * @param maxIdle        nombre maximum d'instances inactives conservées au retour
+     */
+    public RecognizerPool(Model model, KeywordGrammar grammar, Logger logger, Executor warmupExecutor, int prewarm, int maxIdle) {
+        this.model = model;
+        this.grammar = grammar;
+        this.logger = logger;
+        this.warmupExecutor = warmupExecutor;
+        this.maxIdle = Math.max(0, maxIdle);
+        this.prewarm = Math.max(0, Math.min(prewarm, this.maxIdle));
+    }
+
+    /**
+     * Crée les instances initiales (bloquant, à appeler au chargement du modèle).
+     */
+    public void prewarm() {
+        refill();
+    }
+
+    /**
+     * Prête un recognizer remis à zéro. Le future est déjà complété si une instance inactive est
+     * disponible ; sinon elle est créée sur l'exécuteur de préchauffage, jamais sur le thread appelant.
+     * Un prêt qui échoue n'est pas compté : il n'y a rien à rendre.
+     */
+    public CompletableFuture<AudioRecognizer> leaseAsync() {
+        // compté avant de vérifier closed : retire() voit soit ce prêt, soit le refus
+        leased.incrementAndGet();
+        if (closed) {
+            returned();
+            return CompletableFuture.failedFuture(new IllegalStateException("Recognizer pool closed"));
+        }
+        AudioRecognizer recognizer = pollIdle();
+        if (recognizer != null) {
+            scheduleRefill(prewarm);
+            return CompletableFuture.completedFuture(recognizer);
+        }
+        CompletableFuture<AudioRecognizer> future = new CompletableFuture<>();
+        Runnable creation = () -> {
+            try {
+                future.complete(create());
+            } catch (Throwable t) {
+                returned();
+                future.completeExceptionally(t);
+            }
+        };
+        if (warmupExecutor == null) {
+            creation.run();
+        } else {
+            try {
+                warmupExecutor.execute(creation);
+            } catch (RuntimeException e) {
+                returned();
+                future.completeExceptionally(e);
+            }
+        }
+        scheduleRefill(prewarm);
+        return future;
+    }
+
+    /**
+     * Prête une instance inactive, ou null si le pool est vide ; dans ce cas une instance est préparée
+     * en arrière-plan pour le prochain essai.
+     *
+     * @throws IllegalStateException si le pool est fermé
+     */
+    public AudioRecognizer tryLease() {
+        leased.incrementAndGet();
+        if (closed) {
+            returned();
+            throw new IllegalStateException("Recognizer pool closed");
+        }
+        AudioRecognizer recognizer = pollIdle();
+        if (recognizer == null) {
+            returned();
+            scheduleRefill(Math.max(1, prewarm));
+            return null;
+        }
+        scheduleRefill(prewarm);
+        return recognizer;
+    }
+
+    /**
+     * Rend un recognizer : remis à zéro et conservé si le pool n'est pas plein, fermé sinon.
+     */
+    public void release(AudioRecognizer recognizer) {
+        if (recognizer == null) {
+            return;
+        }
+        if (closed || idleCount.get() >= maxIdle) {
+            recognizer.close();
+            returned();
+            return;
+        }
+        recognizer.reset();
+        idle.offerFirst(recognizer);
+        idleCount.incrementAndGet();
+        if (closed) {
+            // retiré pendant le retour : ne rien laisser dans un pool fermé
+            trim(0);
+        }
+        returned();
+    }
+
+    /**
+     * Ferme le pool et appelle {@code onDrained} une seule fois, dès qu'aucune instance n'est plus prêtée
+     * (immédiatement si c'est déjà le cas), depuis le thread qui rend la dernière.
+     */
+    public void retire(Runnable onDrained) {
+        this.onDrained = onDrained;
+        close();
+        if (leased.get() == 0) {
+            fireDrained();
+        }
+    }
+
+    /**
+     * Ferme les instances inactives au-delà de {@code keep}. Retourne le nombre d'instances libérées.
+     */
+    public int trim(int keep) {
+        int released = 0;
+        while (idleCount.get() > Math.max(0, keep)) {
+            // les plus anciennes en fin de deque : les plus récentes restent chaudes
+            AudioRecognizer recognizer = idle.pollLast();
+            if (recognizer == null) {
+                break;
+            }
+            idleCount.decrementAndGet();
+            recognizer.close();
+            released++;
+        }
+        return released;
+    }
+
+    /**
+     * Libère toutes les instances inactives si le heap dépasse {@code ratio} après le dernier GC.
+     * Les recognizers natifs ne pèsent pas sur le heap, mais un heap tendu signale un serveur
+     * en manque de mémoire : on rend ce qui peut l'être sans attendre. Appelée périodiquement (tâche
+     * de purge) ; ne fait que lire les MXBeans, sans toucher aux seuils partagés avec le reste du serveur.
+     *
+     * @return nombre d'instances libérées
+     */
+    public int relieveMemoryPressure(double ratio) {
+        if (ratio <= 0 || ratio >= 1 || idleCount.get() == 0 || heapUsageAfterGc() < ratio) {
+            return 0;
+        }
+        int released = trim(0);
+        if (released > 0) {
+            logger.warning("Memory pressure: released " + released + " idle speech recognizers");
+        }
+        return released;
+    }
+
+    /**
+     * Occupation (0..1) de la génération ancienne du heap à l'issue du dernier GC, 0 si inconnue.
+     */
+    static double heapUsageAfterGc() {
+        double highest = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            // seule la génération ancienne supporte un seuil d'usage : eden et survivants sont écartés
+            if (pool.getType() != MemoryType.HEAP || !pool.isUsageThresholdSupported()) {
+                continue;
+            }
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage == null || usage.getMax() <= 0) {
+                continue;
+            }
+            highest = Math.max(highest, (double) usage.getUsed() / usage.getMax());
+        }
+        return highest;
+    }
+
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+
+    public int getLeasedCount() {
+        return leased.get();
+    }
+
+    public void close() {
+        closed = true;
+        trim(0);
+    }
+
+    private void returned() {
+        if (leased.decrementAndGet() == 0 && closed) {
+            fireDrained();
+        }
+    }
+
+    private void fireDrained() {
+        Runnable callback = onDrained;
+        if (callback != null && drained.compareAndSet(false, true)) {
+            callback.run();
+        }
+    }
+
+    private AudioRecognizer pollIdle() {
+        AudioRecognizer recognizer = idle.pollFirst();
+        if (recognizer != null) {
+            idleCount.decrementAndGet();
+        }
+        return recognizer;
+    }
+
+    private void scheduleRefill(int target) {
+        if (idleCount.get() >= target || warmupExecutor == null || !refillScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            warmupExecutor.execute(() -> {
+                try {
+                    refill(target);
+                } finally {
+                    refillScheduled.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            refillScheduled.set(false);
+        }
+    }
+
+    private void refill() {
+        refill(prewarm);
+    }
+
+    private void refill(int target) {
+        while (!closed && idleCount.get() < Math.min(target, Math.max(1, maxIdle))) {
+            try {
+                AudioRecognizer recognizer = create();
+                if (closed) {
+                    recognizer.close();
+                    return;
+                }
+                idle.offerLast(recognizer);
+                idleCount.incrementAndGet();
+            } catch (Exception e) {
+                logger.severe("Failed to pre-create audio recognizer: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private AudioRecognizer create() throws Exception {
+        if (grammar == null) {
+            return new AudioRecognizer(model);
+        }
+        long version = grammar.getVersion();
+        AudioRecognizer recognizer = new AudioRecognizer(model, grammar.getJson());
+        recognizer.setGrammarVersion(version);
+        return recognizer;
+    }
+}
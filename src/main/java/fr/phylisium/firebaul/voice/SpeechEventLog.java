@@ -0,0 +1,190 @@
+package fr.phylisium.firebaul.keyword;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.slf4j.spi.NOPLoggingEventBuilder;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Journal d'événements du pipeline vocal, pensé pour les chemins chauds (chaque partiel, chaque trigger).
+ * {@link #at} décide avant toute construction de message : niveau de la catégorie, échantillonnage
+ * (un événement sur N) puis limite de débit par joueur. Un événement écarté coûte quelques lectures
+ * volatiles et retourne le builder NOP de SLF4J ; les arguments ne sont formatés que si la ligne part.
+ * <pre>
+ * eventLog.at(Category.TRIGGER, Level.INFO, playerId)
+ *         .setMessage("trigger keyword={} player={} reason={}")
+ *         .addArgument(key).addArgument(playerId).addArgument(reason)
+ *         .log();
+ * </pre>
+ * Les événements retenus partent sur le logger {@code fr.phylisium.firebaul.speech.<catégorie>} ; ceux de
+ * niveau debug/trace y sont émis en info, pour qu'une console serveur restée au niveau info les affiche :
+ * c'est la configuration des catégories qui filtre, pas le backend.
+ */
+public class SpeechEventLog {
+    public enum Category {
+        PARTIAL, FINAL, TRIGGER, DEBOUNCE, SESSION;
+
+        final String key = name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final int OFF = Integer.MAX_VALUE;
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final Logger[] loggers = new Logger[Category.values().length];
+    // remplacés en bloc par configure() : un lecteur voit l'ancienne ou la nouvelle configuration
+    private volatile int[] thresholds = defaultThresholds();
+    private volatile int[] sampleEvery = defaultSampling();
+    private final Map<UUID, RateWindow> windows = new ConcurrentHashMap<>();
+    private volatile int perPlayerPerSecond = 20;
+
+    public SpeechEventLog() {
+        for (Category category : Category.values()) {
+            loggers[category.ordinal()] = LoggerFactory.getLogger("fr.phylisium.firebaul.speech." + category.key);
+        }
+    }
+
+    /**
+     * Lit {@code speech.log} ({@code levels.<catégorie>}, {@code sample.<catégorie>}, {@code per_player_per_second}).
+     * {@code debug} (speech.debug) abaisse toutes les catégories au niveau debug.
+     */
+    public void configure(ConfigurationSection section, boolean debug) {
+        int[] newThresholds = defaultThresholds();
+        int[] newSampleEvery = defaultSampling();
+        for (Category category : Category.values()) {
+            int i = category.ordinal();
+            int threshold = newThresholds[i];
+            int sample = newSampleEvery[i];
+            if (section != null) {
+                threshold = parseThreshold(section.getString("levels." + category.key), threshold);
+                sample = Math.max(1, section.getInt("sample." + category.key, sample));
+            }
+            if (debug) {
+                threshold = Math.min(threshold, Level.DEBUG.toInt());
+            }
+            newThresholds[i] = threshold;
+            newSampleEvery[i] = sample;
+        }
+        thresholds = newThresholds;
+        sampleEvery = newSampleEvery;
+        if (section != null) {
+            perPlayerPerSecond = Math.max(0, section.getInt("per_player_per_second", perPlayerPerSecond));
+        }
+    }
+
+    public boolean isEnabled(Category category, Level level) {
+        return level.toInt() >= thresholds[category.ordinal()];
+    }
+
+    /**
+     * Builder de l'événement, ou le builder NOP si la catégorie, l'échantillonnage ou la limite du
+     * joueur l'écartent. {@code playerId} peut être null (événement non rattaché à un joueur).
+     */
+    public LoggingEventBuilder at(Category category, Level level, UUID playerId) {
+        int i = category.ordinal();
+        if (level.toInt() < thresholds[i]) {
+            return NOPLoggingEventBuilder.singleton();
+        }
+        int sample = sampleEvery[i];
+        if (sample > 1 && ThreadLocalRandom.current().nextInt(sample) != 0) {
+            return NOPLoggingEventBuilder.singleton();
+        }
+        if (playerId != null && !admit(playerId)) {
+            return NOPLoggingEventBuilder.singleton();
+        }
+        Level emitted = level.toInt() < Level.INFO.toInt() ? Level.INFO : level;
+        return loggers[i].atLevel(emitted);
+    }
+
+    /**
+     * Oublie la fenêtre de débit d'un joueur (fin de session).
+     */
+    public void forget(UUID playerId) {
+        windows.remove(playerId);
+    }
+
+    private boolean admit(UUID playerId) {
+        int limit = perPlayerPerSecond;
+        if (limit <= 0) {
+            return true;
+        }
+        RateWindow window = windows.computeIfAbsent(playerId, id -> new RateWindow());
+        long second = System.nanoTime() / 1_000_000_000L;
+        while (true) {
+            long state = window.state.get();
+            long stateSecond = state >>> COUNT_BITS;
+            long count = state & COUNT_MASK;
+            if (stateSecond != second) {
+                if (window.state.compareAndSet(state, (second << COUNT_BITS) | 1)) {
+                    reportSuppressed(playerId, window);
+                    return true;
+                }
+                continue;
+            }
+            if (count >= limit) {
+                window.suppressed.incrementAndGet();
+                return false;
+            }
+            if (window.state.compareAndSet(state, state + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void reportSuppressed(UUID playerId, RateWindow window) {
+        int suppressed = window.suppressed.getAndSet(0);
+        if (suppressed > 0) {
+            loggers[Category.SESSION.ordinal()].atWarn()
+                    .setMessage("rate-limited player={} suppressed={} limit_per_s={}")
+                    .addArgument(playerId).addArgument(suppressed).addArgument(perPlayerPerSecond)
+                    .log();
+        }
+    }
+
+    private static int[] defaultThresholds() {
+        int[] defaults = new int[Category.values().length];
+        Arrays.fill(defaults, OFF);
+        // comportement historique : seuls les triggers sont journalisés hors mode debug
+        defaults[Category.TRIGGER.ordinal()] = Level.INFO.toInt();
+        return defaults;
+    }
+
+    private static int[] defaultSampling() {
+        int[] defaults = new int[Category.values().length];
+        Arrays.fill(defaults, 1);
+        return defaults;
+    }
+
+    private static int parseThreshold(String value, int fallback) {
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        if (value.equalsIgnoreCase("off")) {
+            return OFF;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT)).toInt();
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Fenêtre d'une seconde par joueur : seconde courante et nombre d'événements émis dans un seul long.
+     */
+    private static final class RateWindow {
+        final AtomicLong state = new AtomicLong();
+        final AtomicInteger suppressed = new AtomicInteger();
+    }
+}
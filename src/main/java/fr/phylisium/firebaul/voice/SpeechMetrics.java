@@ -0,0 +1,141 @@
+package fr.phylisium.firebaul.keyword;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs et histogrammes du pipeline vocal, partagés par toutes les sessions.
+ * Les écritures se font depuis les threads de reconnaissance (LongAdder, {@link LogLinearHistogram}) :
+ * ni verrou ni allocation sur le chemin d'une trame. Les valeurs sont cumulées depuis le démarrage
+ * ou le dernier {@link #reset()}.
+ */
+public class SpeechMetrics {
+    private final LongAdder framesReceived = new LongAdder();
+    private final LongAdder framesDropped = new LongAdder();
+    private final LongAdder framesSkippedByVad = new LongAdder();
+    private final LongAdder triggers = new LongAdder();
+    private final LongAdder debounceRejections = new LongAdder();
+
+    private final LogLinearHistogram queueDepth = new LogLinearHistogram();
+    private final LogLinearHistogram decodeMicros = new LogLinearHistogram();
+    private final LogLinearHistogram acceptMicros = new LogLinearHistogram();
+    private final LogLinearHistogram partialToTriggerMillis = new LogLinearHistogram();
+
+    private volatile long sinceMillis = System.currentTimeMillis();
+
+    /**
+     * Trame reçue pour une session ; {@code dropped} trames sacrifiées par la file à cette occasion,
+     * {@code depth} trames en attente après l'ajout.
+     */
+    public void recordFrame(long dropped, int depth) {
+        framesReceived.increment();
+        if (dropped > 0) {
+            framesDropped.add(dropped);
+        }
+        queueDepth.record(depth);
+    }
+
+    public void recordDecode(long nanos) {
+        decodeMicros.record(nanos / 1000L);
+    }
+
+    public void recordAccept(long nanos) {
+        acceptMicros.record(nanos / 1000L);
+    }
+
+    public void recordVadSkip() {
+        framesSkippedByVad.increment();
+    }
+
+    public void recordDebounceRejection() {
+        debounceRejections.increment();
+    }
+
+    /**
+     * @param partialToTriggerNanos délai entre la première apparition du mot-clé dans un partiel et
+     *                              le déclenchement, ou une valeur négative s'il n'a pas été vu en partiel
+     */
+    public void recordTrigger(long partialToTriggerNanos) {
+        triggers.increment();
+        if (partialToTriggerNanos >= 0) {
+            partialToTriggerMillis.record(partialToTriggerNanos / 1_000_000L);
+        }
+    }
+
+    public long getFramesReceived() {
+        return framesReceived.sum();
+    }
+
+    public long getFramesDropped() {
+        return framesDropped.sum();
+    }
+
+    public long getTriggers() {
+        return triggers.sum();
+    }
+
+    public long getDebounceRejections() {
+        return debounceRejections.sum();
+    }
+
+    public void reset() {
+        framesReceived.reset();
+        framesDropped.reset();
+        framesSkippedByVad.reset();
+        triggers.reset();
+        debounceRejections.reset();
+        queueDepth.reset();
+        decodeMicros.reset();
+        acceptMicros.reset();
+        partialToTriggerMillis.reset();
+        sinceMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Résumé lisible, une mesure par ligne (commande /firebaul stats et fichier d'instantané).
+     */
+    public List<String> snapshotLines() {
+        List<String> lines = new ArrayList<>();
+        long received = framesReceived.sum();
+        long skipped = framesSkippedByVad.sum();
+        lines.add("since " + Instant.ofEpochMilli(sinceMillis));
+        lines.add("frames: received=" + received + " dropped=" + framesDropped.sum()
+                + " vad_skipped=" + skipped + " (" + percent(skipped, received) + ")");
+        lines.add("triggers: accepted=" + triggers.sum() + " debounced=" + debounceRejections.sum());
+        lines.add("queue_depth (frames): " + queueDepth.snapshot());
+        lines.add("decode (us): " + decodeMicros.snapshot());
+        lines.add("accept_waveform (us): " + acceptMicros.snapshot());
+        lines.add("partial_to_trigger (ms): " + partialToTriggerMillis.snapshot());
+        return lines;
+    }
+
+    /**
+     * Écrit {@link #snapshotLines()} dans {@code target} via un fichier temporaire renommé :
+     * un lecteur ne voit jamais un fichier à moitié écrit.
+     */
+    public void writeSnapshot(Path target) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(tmp, snapshotLines(), StandardCharsets.UTF_8);
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String percent(long part, long total) {
+        return total == 0 ? "0%" : Math.round(part * 100.0 / total) + "%";
+    }
+}
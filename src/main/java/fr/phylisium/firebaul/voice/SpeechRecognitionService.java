@@ -1,40 +1,116 @@
 package fr.phylisium.firebaul.keyword;
 
-import com.google.gson.Gson;
 import fr.phylisium.firebaul.Firebaul;
+import fr.phylisium.firebaul.Tasks;
+import fr.phylisium.firebaul.command.FirebaulCommand;
+import fr.phylisium.firebaul.keyword.SpeechEventLog.Category;
 import fr.phylisium.firebaul.keyword.impls.*;
 import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.slf4j.event.Level;
 import org.vosk.Model;
 
 import java.io.File;
 import java.io.IOException;
 import java.time.Duration;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 public class SpeechRecognitionService {
+    /**
+     * État du modèle Vosk ; l'audio reçu hors de READY est ignoré.
+     */
+    public enum ModelState {
+        UNLOADED, LOADING, READY, FAILED
+    }
+
     private static final long DEFAULT_PURGE_TTL_MS = 1000 * 60 * 60;
-    private static final long MIN_PURGE_PERIOD_TICKS = 10 * 60 * 20L;
+    // la roue d'expiration avance par pas d'une seconde ; une purge ne traite que les entrées échues
+    private static final long PURGE_PERIOD_TICKS = 5 * 20L;
+    private static final String METRICS_SNAPSHOT_FILE = "speech-metrics.txt";
+    // durée d'une trame Opus de Simple Voice Chat
+    private static final long OPUS_FRAME_MS = 20;
 
-    private final Firebaul plugin = Firebaul.getInstance();
-    private Model model;
+    private final Plugin plugin;
+    private volatile Model model;
+    private volatile RecognizerPool recognizerPool;
+    private volatile ModelState modelState = ModelState.UNLOADED;
+    private final AtomicReference<CompletableFuture<ModelState>> loading = new AtomicReference<>();
+    private String modelDirectory = "model";
+    private boolean shuttingDown;
     private final Map<UUID, PlayerRecognition> recognitions = new ConcurrentHashMap<>();
     private final KeywordRegistry keywordRegistry = new KeywordRegistry();
-    private final Gson gson = new Gson();
+    private final KeywordGrammar keywordGrammar = new KeywordGrammar(keywordRegistry);
 
     private final DebounceService debounceService = new DebounceService();
     private final ActionBarFormatter actionBarFormatter = new ActionBarFormatter();
+    private final ActionBarDispatcher actionBarDispatcher;
+    private final SpeechMetrics metrics = new SpeechMetrics();
+    private final SpeechEventLog eventLog = new SpeechEventLog();
+    private volatile Executor mainThreadExecutor = Tasks::runSync;
+    private volatile KeywordTriggerObserver triggerObserver;
+    private String captureDir = "";
+    private OpusCaptureWriter captureWriter;
 
     private Duration pollInterval = Duration.ofMillis(100);
     private int stabilityThreshold = 2;
     private Duration debounceDuration = Duration.ofMillis(1000);
     private Duration purgeTtlDuration = Duration.ofMillis(DEFAULT_PURGE_TTL_MS);
 
+    private RecognitionScheduler.Mode schedulerMode = RecognitionScheduler.Mode.POOLED;
+    private int schedulerThreads = 0;
+    private int schedulerBatchFrames = 8;
+    private volatile RecognitionScheduler scheduler;
+
+    private int queueCapacity = 50;
+    private OpusFrameBuffer.OverflowPolicy queueOverflowPolicy = OpusFrameBuffer.OverflowPolicy.DROP_OLDEST;
+    private int silenceFrameBytes = 3;
+
+    private String vadMode = "energy";
+    private double vadThresholdDb = -45.0;
+    private double vadWeakMarginDb = 6.0;
+    private double vadZeroCrossingRate = 0.25;
+    private long vadHangoverMs = 300;
+    private long vadPreRollMs = 200;
+    private volatile Supplier<VoiceActivityDetector> vadFactory = this::createDefaultVad;
+
+    private boolean grammarMode = false;
+    private boolean incrementalMatching = true;
+
+    private int poolPrewarm = 4;
+    private int poolMaxIdle = 16;
+    private double poolMemoryPressureRatio = 0.85;
+
+    private Duration sessionIdleTimeout = Duration.ofMinutes(5);
+    private Duration sessionEvictionPeriod = Duration.ofSeconds(30);
+    private int evictionTaskId = -1;
+    private boolean listenersRegistered;
+    private boolean commandsRegistered;
+
+    private Duration metricsSnapshotPeriod = Duration.ofSeconds(60);
+    private int metricsTaskId = -1;
+
     private int purgeTaskId = -1;
     private volatile boolean keywordsRegistered;
 
     public SpeechRecognitionService() {
+        this(Firebaul.getInstance());
+    }
+
+    /**
+     * @param plugin plugin propriétaire (config, logger, scheduler) ; un stub suffit hors serveur (rejeu)
+     */
+    public SpeechRecognitionService(Plugin plugin) {
+        this.plugin = plugin;
+        this.actionBarDispatcher = new ActionBarDispatcher(plugin);
+        debounceService.setEventLog(eventLog);
         loadConfiguration();
     }
 
@@ -51,7 +127,33 @@ public class SpeechRecognitionService {
             debounceDuration = Duration.ofMillis(Math.max(0, debounceMs));
             long purgeTtlMs = config.getLong("speech.purge_ttl_ms", purgeTtlDuration.toMillis());
             purgeTtlDuration = Duration.ofMillis(Math.max(0, purgeTtlMs));
-            debounceService.setDebug(config.getBoolean("speech.debug", false));
+            debounceService.setTtl(purgeTtlDuration.toMillis());
+            eventLog.configure(config.getConfigurationSection("speech.log"), config.getBoolean("speech.debug", false));
+            schedulerMode = RecognitionScheduler.Mode.fromConfig(config.getString("speech.scheduler.mode"), schedulerMode);
+            schedulerThreads = Math.max(0, config.getInt("speech.scheduler.threads", schedulerThreads));
+            schedulerBatchFrames = Math.max(1, config.getInt("speech.scheduler.batch_frames", schedulerBatchFrames));
+            queueCapacity = Math.max(1, config.getInt("speech.queue.capacity", queueCapacity));
+            queueOverflowPolicy = OpusFrameBuffer.OverflowPolicy.fromConfig(config.getString("speech.queue.overflow_policy"), queueOverflowPolicy);
+            silenceFrameBytes = Math.max(0, config.getInt("speech.queue.silence_frame_bytes", silenceFrameBytes));
+            vadMode = config.getString("speech.vad.mode", vadMode);
+            vadThresholdDb = config.getDouble("speech.vad.energy_threshold_db", vadThresholdDb);
+            vadWeakMarginDb = Math.max(0, config.getDouble("speech.vad.weak_margin_db", vadWeakMarginDb));
+            vadZeroCrossingRate = Math.max(0, Math.min(1, config.getDouble("speech.vad.zero_crossing_rate", vadZeroCrossingRate)));
+            vadHangoverMs = Math.max(0, config.getLong("speech.vad.hangover_ms", vadHangoverMs));
+            vadPreRollMs = Math.max(0, config.getLong("speech.vad.preroll_ms", vadPreRollMs));
+            grammarMode = config.getBoolean("speech.recognizer.grammar_mode", grammarMode);
+            incrementalMatching = config.getBoolean("speech.matching.incremental", incrementalMatching);
+            poolPrewarm = Math.max(0, config.getInt("speech.pool.prewarm", poolPrewarm));
+            poolMaxIdle = Math.max(0, config.getInt("speech.pool.max_idle", poolMaxIdle));
+            poolMemoryPressureRatio = config.getDouble("speech.pool.memory_pressure_ratio", poolMemoryPressureRatio);
+            long idleTimeoutS = config.getLong("speech.session.idle_timeout_s", sessionIdleTimeout.toSeconds());
+            sessionIdleTimeout = Duration.ofSeconds(Math.max(0, idleTimeoutS));
+            long evictionPeriodS = config.getLong("speech.session.eviction_period_s", sessionEvictionPeriod.toSeconds());
+            sessionEvictionPeriod = Duration.ofSeconds(Math.max(1, evictionPeriodS));
+            captureDir = config.getString("speech.capture.dir", captureDir);
+            modelDirectory = config.getString("speech.model.dir", modelDirectory);
+            long snapshotPeriodS = config.getLong("speech.metrics.snapshot_period_s", metricsSnapshotPeriod.toSeconds());
+            metricsSnapshotPeriod = Duration.ofSeconds(Math.max(0, snapshotPeriodS));
         } catch (Exception e) {
             plugin.getLogger().warning("Unable to load speech config: " + e.getMessage());
         }
@@ -61,29 +163,231 @@ public class SpeechRecognitionService {
         return keywordRegistry;
     }
 
+    /**
+     * Compteurs et histogrammes de latence partagés par toutes les sessions.
+     */
+    public SpeechMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Remplace la VAD utilisée par les prochaines sessions (null pour envoyer tout l'audio à Vosk).
+     */
+    public void setVoiceActivityDetectorFactory(Supplier<VoiceActivityDetector> factory) {
+        this.vadFactory = factory;
+    }
+
+    /**
+     * Exécuteur des handlers de mots-clés (thread principal par défaut, via {@link Tasks#runSync}).
+     */
+    public void setMainThreadExecutor(Executor executor) {
+        this.mainThreadExecutor = executor == null ? Tasks::runSync : executor;
+    }
+
+    /**
+     * Observateur appelé à chaque déclenchement accepté (null pour aucun), pris en compte par les nouvelles sessions.
+     */
+    public void setTriggerObserver(KeywordTriggerObserver observer) {
+        this.triggerObserver = observer;
+    }
+
+    private VoiceActivityDetector createDefaultVad() {
+        if (vadMode == null || vadMode.equalsIgnoreCase("none")) {
+            return null;
+        }
+        if (!vadMode.equalsIgnoreCase("energy") && plugin != null) {
+            plugin.getLogger().warning("Unknown speech.vad.mode '" + vadMode + "', using energy");
+        }
+        return new EnergyVoiceActivityDetector(vadThresholdDb, vadWeakMarginDb, vadZeroCrossingRate, vadHangoverMs, 16000);
+    }
+
+    /**
+     * Charge le modèle et attend la fin du chargement (rejeu hors ligne) ; voir {@link #loadModelAsync}.
+     */
     public void loadModel(File modelDir) throws IOException {
+        loadModelAsync(modelDir).join();
+    }
+
+    /**
+     * Charge le modèle de speech.model.dir sans bloquer l'appelant.
+     */
+    public CompletableFuture<ModelState> loadModelAsync() {
+        return loadModelAsync(getModelDirectory());
+    }
+
+    /**
+     * Charge (ou remplace) le modèle Vosk sur un thread dédié : l'activation du plugin n'attend pas les
+     * dizaines de secondes d'un gros modèle. Tant qu'aucun modèle n'est prêt, l'audio reçu est ignoré.
+     * Lors d'un remplacement, l'ancien modèle sert jusqu'à ce que le nouveau soit prêt ; chaque session
+     * bascule ensuite à la fin de son énoncé en cours, et l'ancien modèle natif est libéré quand la
+     * dernière a migré. Si un chargement est déjà en cours, retourne celui-ci.
+     */
+    public CompletableFuture<ModelState> loadModelAsync(File modelDir) {
         ensureKeywordsRegistered();
         if (plugin == null) {
-            return;
+            return CompletableFuture.completedFuture(modelState);
         }
-        if (modelDir == null || !modelDir.isDirectory()) {
-            plugin.getLogger().warning("Vosk model not found in " + (modelDir == null ? "null" : modelDir.getAbsolutePath()) + " - speech recognition disabled");
-            this.model = null;
-            return;
+        CompletableFuture<ModelState> future = new CompletableFuture<>();
+        CompletableFuture<ModelState> inProgress = loading.compareAndExchange(null, future);
+        if (inProgress != null) {
+            return inProgress;
+        }
+        startBackgroundTasks();
+        if (modelState != ModelState.READY) {
+            modelState = ModelState.LOADING;
+        }
+        Thread loader = new Thread(() -> {
+            ModelState result;
+            try {
+                result = loadAndSwap(modelDir);
+            } catch (Throwable t) {
+                plugin.getLogger().severe("Unexpected error while loading Vosk model: " + t);
+                result = settleFailure();
+            }
+            // libéré avant de compléter : un rechargement demandé depuis un callback n'est pas refusé
+            loading.set(null);
+            future.complete(result);
+        }, "firebaul-model-loader");
+        loader.setDaemon(true);
+        loader.start();
+        return future;
+    }
+
+    public ModelState getModelState() {
+        return modelState;
+    }
+
+    public boolean isModelLoading() {
+        return loading.get() != null;
+    }
+
+    /**
+     * Dossier du modèle configuré (speech.model.dir, relatif au dossier du plugin).
+     */
+    public File getModelDirectory() {
+        File dir = new File(modelDirectory);
+        if (!dir.isAbsolute() && plugin != null) {
+            dir = new File(plugin.getDataFolder(), modelDirectory);
         }
+        return dir;
+    }
 
+    /**
+     * Thread de chargement : construit le modèle et son pool préchauffé, puis les publie d'un coup.
+     */
+    private ModelState loadAndSwap(File modelDir) {
+        if (modelDir == null || !modelDir.isDirectory()) {
+            plugin.getLogger().warning("Vosk model not found in " + (modelDir == null ? "null" : modelDir.getAbsolutePath())
+                    + (modelState == ModelState.READY ? " - keeping current model" : " - speech recognition disabled"));
+            return settleFailure();
+        }
+        long start = System.nanoTime();
+        Model loaded;
+        RecognizerPool pool;
         try {
-            this.model = new Model(modelDir.getAbsolutePath());
-            plugin.getLogger().info("Loaded Vosk model from " + modelDir.getAbsolutePath());
-            schedulePurgeTask();
+            loaded = new Model(modelDir.getAbsolutePath());
         } catch (LinkageError e) {
             plugin.getLogger().severe("Failed to load Vosk native library: " + e.getMessage());
             plugin.getLogger().severe("Speech recognition disabled; see plugin docs for native library setup.");
-            this.model = null;
+            return settleFailure();
         } catch (Exception e) {
             plugin.getLogger().severe("Failed to load Vosk model: " + e.getMessage());
-            this.model = null;
+            return settleFailure();
         }
+        try {
+            pool = createRecognizerPool(loaded);
+        } catch (Exception | LinkageError e) {
+            plugin.getLogger().severe("Failed to create speech recognizers: " + e.getMessage());
+            loaded.close();
+            return settleFailure();
+        }
+
+        RecognizerPool previousPool;
+        Model previousModel;
+        synchronized (this) {
+            if (shuttingDown) {
+                pool.close();
+                loaded.close();
+                return modelState;
+            }
+            previousPool = recognizerPool;
+            previousModel = model;
+            model = loaded;
+            recognizerPool = pool;
+            modelState = ModelState.READY;
+        }
+        plugin.getLogger().info("Loaded Vosk model from " + modelDir.getAbsolutePath() + " in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        if (previousPool != null) {
+            retireModel(previousPool, previousModel, pool);
+        }
+        return ModelState.READY;
+    }
+
+    private ModelState settleFailure() {
+        if (modelState != ModelState.READY) {
+            modelState = ModelState.FAILED;
+        }
+        return modelState;
+    }
+
+    /**
+     * Fait migrer les sessions vers {@code next} ; l'ancien modèle est fermé au retour de son dernier recognizer.
+     * Les sessions inactives n'atteindront pas de fin d'énoncé : elles sont fermées et seront recréées
+     * sur le nouveau modèle à leur prochaine trame.
+     */
+    private void retireModel(RecognizerPool previousPool, Model previousModel, RecognizerPool next) {
+        for (PlayerRecognition pr : recognitions.values()) {
+            pr.migrateTo(next);
+        }
+        int closed = closeSessionsIdleFor(pollInterval.toNanos() * 2);
+        previousPool.retire(() -> {
+            if (previousModel != null) {
+                previousModel.close();
+            }
+            plugin.getLogger().info("Released previous Vosk model");
+        });
+        plugin.getLogger().info("Migrating " + (recognitions.size()) + " speech sessions to the new model ("
+                + closed + " idle sessions closed)");
+    }
+
+    private RecognizerPool createRecognizerPool(Model model) throws Exception {
+        RecognizerPool pool = new RecognizerPool(
+                model,
+                grammarMode ? keywordGrammar : null,
+                plugin.getLogger(),
+                task -> Bukkit.getScheduler().runTaskAsynchronously(plugin, task),
+                poolPrewarm,
+                poolMaxIdle
+        );
+        pool.prewarm();
+        plugin.getLogger().info("Pre-warmed " + pool.getIdleCount() + " speech recognizers");
+        return pool;
+    }
+
+    /**
+     * Tâches et enregistrements indépendants du modèle ; chacun ne s'exécute qu'une fois.
+     */
+    private void startBackgroundTasks() {
+        createCaptureWriter();
+        actionBarDispatcher.start();
+        schedulePurgeTask();
+        scheduleEvictionTask();
+        scheduleMetricsSnapshotTask();
+        registerListeners();
+        registerCommands();
+    }
+
+    private void createCaptureWriter() {
+        if (captureDir == null || captureDir.isBlank() || captureWriter != null) {
+            return;
+        }
+        File dir = new File(captureDir);
+        if (!dir.isAbsolute()) {
+            dir = new File(plugin.getDataFolder(), captureDir);
+        }
+        captureWriter = new OpusCaptureWriter(dir, plugin.getLogger());
+        plugin.getLogger().info("Capturing voice sessions to " + dir.getAbsolutePath());
     }
 
     private void ensureKeywordsRegistered() {
@@ -99,12 +403,81 @@ public class SpeechRecognitionService {
     }
 
     private void schedulePurgeTask() {
-        if (plugin == null || model == null || purgeTaskId != -1) {
+        if (plugin == null || purgeTaskId != -1) {
             return;
         }
-        long purgeTicks = Math.max(1, purgeTtlDuration.toMillis());
-        long period = Math.max(MIN_PURGE_PERIOD_TICKS, purgeTicks / 50L);
-        purgeTaskId = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::runPurge, 20L * 60L, period).getTaskId();
+        purgeTaskId = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::runPurge, PURGE_PERIOD_TICKS, PURGE_PERIOD_TICKS).getTaskId();
+    }
+
+    private void scheduleEvictionTask() {
+        if (plugin == null || evictionTaskId != -1 || sessionIdleTimeout.isZero()) {
+            return;
+        }
+        long period = Math.max(20L, sessionEvictionPeriod.toMillis() / 50L);
+        evictionTaskId = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::evictIdleSessions, period, period).getTaskId();
+    }
+
+    private void scheduleMetricsSnapshotTask() {
+        if (plugin == null || metricsTaskId != -1 || metricsSnapshotPeriod.isZero()) {
+            return;
+        }
+        long period = Math.max(20L, metricsSnapshotPeriod.toMillis() / 50L);
+        metricsTaskId = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::writeMetricsSnapshot, period, period).getTaskId();
+    }
+
+    private void writeMetricsSnapshot() {
+        try {
+            metrics.writeSnapshot(new File(plugin.getDataFolder(), METRICS_SNAPSHOT_FILE).toPath());
+        } catch (IOException e) {
+            plugin.getLogger().warning("Unable to write speech metrics snapshot: " + e.getMessage());
+        }
+    }
+
+    private void registerCommands() {
+        if (plugin == null || commandsRegistered) {
+            return;
+        }
+        Bukkit.getCommandMap().register(plugin.getName().toLowerCase(Locale.ROOT), new FirebaulCommand(this));
+        commandsRegistered = true;
+    }
+
+    private void registerListeners() {
+        if (plugin == null || listenersRegistered) {
+            return;
+        }
+        Bukkit.getPluginManager().registerEvents(new SpeechSessionListener(this), plugin);
+        listenersRegistered = true;
+    }
+
+    /**
+     * Ferme les sessions sans audio depuis speech.session.idle_timeout_s ; elles seront recréées
+     * à la prochaine trame. Les recognizers inactifs au-delà du préchauffage sont aussi libérés.
+     */
+    private void evictIdleSessions() {
+        int evicted = closeSessionsIdleFor(sessionIdleTimeout.toNanos());
+        RecognizerPool pool = recognizerPool;
+        int released = pool == null ? 0 : pool.trim(poolPrewarm);
+        if (evicted > 0 || released > 0) {
+            eventLog.at(Category.SESSION, Level.DEBUG, null)
+                    .setMessage("evicted idle_sessions={} released_recognizers={}")
+                    .addArgument(evicted).addArgument(released)
+                    .log();
+        }
+    }
+
+    private int closeSessionsIdleFor(long timeoutNanos) {
+        int closed = 0;
+        for (Map.Entry<UUID, PlayerRecognition> entry : recognitions.entrySet()) {
+            PlayerRecognition pr = entry.getValue();
+            if (pr.getIdleNanos() < timeoutNanos) {
+                continue;
+            }
+            if (recognitions.remove(entry.getKey(), pr)) {
+                pr.shutdown();
+                closed++;
+            }
+        }
+        return closed;
     }
 
     private void runPurge() {
@@ -112,42 +485,188 @@ public class SpeechRecognitionService {
             return;
         }
         try {
-            int removed = debounceService.purgeExpired(purgeTtlDuration.toMillis());
-            if (removed > 0) {
-                plugin.getLogger().info("DebounceService purged " + removed + " players");
-            }
+            debounceService.purgeExpired();
         } catch (Exception e) {
             plugin.getLogger().severe("Unable to purge debounce entries: " + e.getMessage());
         }
+        RecognizerPool pool = recognizerPool;
+        if (pool != null) {
+            // simple lecture des MXBeans : aucun seuil JMX global du serveur n'est modifié
+            pool.relieveMemoryPressure(poolMemoryPressureRatio);
+        }
     }
 
     public void acceptOpus(UUID playerId, byte[] opusData) {
-        if (model == null || opusData == null) {
+        // lu une seule fois : un shutdown concurrent peut remettre le champ à null avant le compute
+        RecognizerPool pool = recognizerPool;
+        if (modelState != ModelState.READY || pool == null || opusData == null) {
             return;
         }
-        getOrCreateRecognition(playerId).enqueue(opusData);
+        OpusCaptureWriter capture = captureWriter;
+        if (capture != null) {
+            capture.record(playerId, opusData);
+        }
+        // enqueue sous le verrou de la clé : l'éviction (remove(id, session) puis shutdown) ne peut pas
+        // s'intercaler, la trame est soit vidée par le shutdown de l'ancienne session, soit prise par une nouvelle
+        recognitions.compute(playerId, (id, current) -> {
+            PlayerRecognition pr = current != null && current.isRunning() ? current : newRecognition(id, pool);
+            pr.enqueue(opusData);
+            return pr;
+        });
     }
 
-    @SuppressWarnings("unused")
+    /**
+     * Ferme immédiatement la session du joueur et rend son recognizer au pool.
+     */
     public void stopRecognition(UUID playerId) {
+        actionBarDispatcher.forget(playerId);
+        eventLog.forget(playerId);
+        actionBarFormatter.forget(playerId);
+        closeCapture(playerId);
         PlayerRecognition pr = recognitions.remove(playerId);
         if (pr != null) {
             pr.shutdown();
         }
     }
 
-    private PlayerRecognition getOrCreateRecognition(UUID playerId) {
-        return recognitions.computeIfAbsent(playerId, id -> new PlayerRecognition(
-                id,
+    /**
+     * Comme {@link #stopRecognition(UUID)}, mais le vidage final du recognizer se fait hors du thread principal.
+     */
+    public void stopRecognitionAsync(UUID playerId) {
+        actionBarDispatcher.forget(playerId);
+        eventLog.forget(playerId);
+        actionBarFormatter.forget(playerId);
+        closeCapture(playerId);
+        PlayerRecognition pr = recognitions.remove(playerId);
+        if (pr == null) {
+            return;
+        }
+        if (plugin == null || !plugin.isEnabled()) {
+            pr.shutdown();
+            return;
+        }
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, pr::shutdown);
+    }
+
+    private void closeCapture(UUID playerId) {
+        OpusCaptureWriter capture = captureWriter;
+        if (capture != null) {
+            capture.close(playerId);
+        }
+    }
+
+    public int getActiveSessionCount() {
+        return recognitions.size();
+    }
+
+    /**
+     * Total des trames Opus sacrifiées par les files bornées des sessions actives.
+     */
+    public long getDroppedFrames() {
+        long total = 0;
+        for (PlayerRecognition pr : recognitions.values()) {
+            total += pr.getDroppedFrames();
+        }
+        return total;
+    }
+
+    public void shutdown() {
+        synchronized (this) {
+            // un chargement encore en cours fermera lui-même le modèle qu'il produit
+            shuttingDown = true;
+        }
+        if (evictionTaskId != -1) {
+            Bukkit.getScheduler().cancelTask(evictionTaskId);
+            evictionTaskId = -1;
+        }
+        if (purgeTaskId != -1) {
+            Bukkit.getScheduler().cancelTask(purgeTaskId);
+            purgeTaskId = -1;
+        }
+        if (metricsTaskId != -1) {
+            Bukkit.getScheduler().cancelTask(metricsTaskId);
+            metricsTaskId = -1;
+            writeMetricsSnapshot();
+        }
+        for (UUID playerId : recognitions.keySet()) {
+            stopRecognition(playerId);
+        }
+        actionBarDispatcher.stop();
+        OpusCaptureWriter capture = captureWriter;
+        captureWriter = null;
+        if (capture != null) {
+            capture.closeAll();
+        }
+        RecognitionScheduler currentScheduler = scheduler;
+        scheduler = null;
+        if (currentScheduler != null) {
+            currentScheduler.shutdown();
+        }
+        RecognizerPool pool;
+        Model currentModel;
+        synchronized (this) {
+            pool = recognizerPool;
+            currentModel = model;
+            recognizerPool = null;
+            model = null;
+            modelState = ModelState.UNLOADED;
+        }
+        if (pool != null) {
+            // une session bloquée à l'arrêt garde son recognizer : le modèle n'est libéré qu'à son retour
+            pool.retire(currentModel == null ? null : currentModel::close);
+        }
+    }
+
+    /**
+     * Retourne le pool partagé (créé à la demande) ou null en mode dédié.
+     */
+    private RecognitionScheduler getScheduler() {
+        if (schedulerMode != RecognitionScheduler.Mode.POOLED) {
+            return null;
+        }
+        RecognitionScheduler current = scheduler;
+        if (current == null) {
+            synchronized (this) {
+                current = scheduler;
+                if (current == null) {
+                    current = new RecognitionScheduler(schedulerThreads, schedulerBatchFrames);
+                    scheduler = current;
+                    if (plugin != null) {
+                        plugin.getLogger().info("Speech recognition pooled on " + current.getPoolSize() + " threads");
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    private VoiceActivityDetector createVad() {
+        Supplier<VoiceActivityDetector> factory = vadFactory;
+        return factory == null ? null : factory.get();
+    }
+
+    private PlayerRecognition newRecognition(UUID playerId, RecognizerPool pool) {
+        return new PlayerRecognition(
+                playerId,
                 plugin,
-                model,
+                pool,
                 keywordRegistry,
-                gson,
                 debounceService,
                 actionBarFormatter,
+                actionBarDispatcher,
+                mainThreadExecutor,
+                triggerObserver,
+                metrics,
+                eventLog,
                 pollInterval,
                 stabilityThreshold,
-                debounceDuration
-        ));
+                debounceDuration,
+                getScheduler(),
+                new OpusFrameBuffer(queueCapacity, queueOverflowPolicy, silenceFrameBytes),
+                createVad(),
+                (int) ((vadPreRollMs + OPUS_FRAME_MS - 1) / OPUS_FRAME_MS),
+                grammarMode ? keywordGrammar : null,
+                incrementalMatching
+        );
     }
 }
@@ -0,0 +1,22 @@
+package fr.phylisium.firebaul.keyword;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Ferme la session de reconnaissance d'un joueur quand il quitte le serveur.
+ */
+public class SpeechSessionListener implements Listener {
+    private final SpeechRecognitionService service;
+
+    public SpeechSessionListener(SpeechRecognitionService service) {
+        this.service = service;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        service.stopRecognitionAsync(event.getPlayer().getUniqueId());
+    }
+}
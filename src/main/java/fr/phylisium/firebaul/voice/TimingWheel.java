@@ -0,0 +1,138 @@
+package fr.phylisium.firebaul.keyword;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Roue temporelle hiérarchique (3 niveaux de 64 cases) sur {@link System#nanoTime()}.
+ * Planifier et faire expirer une entrée coûte O(1) amorti : {@link #advance} ne touche que les cases
+ * échues, quel que soit le nombre d'entrées en attente. Les échéances au-delà de la portée de la roue
+ * sont ramenées à sa dernière case : l'appelant revérifie l'échéance réelle à l'expiration.
+ * {@link #schedule} est utilisable depuis n'importe quel thread ; {@link #advance} est sérialisé.
+ */
+public class TimingWheel<T> {
+    private static final int LEVELS = 3;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final long MAX_SPAN_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final long tickNanos;
+    private final long originNanos;
+    private final Queue<Timer<T>> inbox = new ConcurrentLinkedQueue<>();
+    private final ArrayDeque<Timer<T>>[][] wheels;
+    private long currentTick;
+    private int pending;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimingWheel(long tickNanos) {
+        this.tickNanos = Math.max(1, tickNanos);
+        this.originNanos = System.nanoTime();
+        this.wheels = new ArrayDeque[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheels[level][slot] = new ArrayDeque<>();
+            }
+        }
+    }
+
+    /**
+     * Planifie {@code item} pour l'instant {@code deadlineNanos} (base {@link System#nanoTime()}).
+     */
+    public void schedule(T item, long deadlineNanos) {
+        inbox.add(new Timer<>(item, toTick(deadlineNanos)));
+    }
+
+    /**
+     * Fait avancer la roue jusqu'à {@code nowNanos} et passe chaque entrée échue à {@code onExpire}.
+     * Retourne le nombre d'entrées expirées.
+     */
+    public synchronized int advance(long nowNanos, Consumer<T> onExpire) {
+        long target = toTick(nowNanos);
+        drainInbox();
+        int expired = 0;
+        while (currentTick < target) {
+            currentTick++;
+            cascade(currentTick);
+            ArrayDeque<Timer<T>> bucket = wheels[0][(int) (currentTick & SLOT_MASK)];
+            Timer<T> timer;
+            while ((timer = bucket.poll()) != null) {
+                pending--;
+                onExpire.accept(timer.item);
+                expired++;
+            }
+            if (pending == 0 && inbox.isEmpty()) {
+                // roue vide : inutile de parcourir les ticks restants un par un
+                currentTick = target;
+            }
+            drainInbox();
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return pending + inbox.size();
+    }
+
+    private void drainInbox() {
+        Timer<T> timer;
+        while ((timer = inbox.poll()) != null) {
+            place(timer, 1);
+            pending++;
+        }
+    }
+
+    /**
+     * Redescend d'un niveau les entrées de la case supérieure qui commence au tick {@code tick}.
+     */
+    private void cascade(long tick) {
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = SLOT_BITS * level;
+            if ((tick & ((1L << shift) - 1)) != 0) {
+                return;
+            }
+            ArrayDeque<Timer<T>> bucket = wheels[level][(int) ((tick >>> shift) & SLOT_MASK)];
+            int count = bucket.size();
+            for (int i = 0; i < count; i++) {
+                place(bucket.poll(), 0);
+            }
+        }
+    }
+
+    /**
+     * @param minDelta 0 pendant une cascade (la case du tick courant reste à traiter), 1 sinon
+     */
+    private void place(Timer<T> timer, long minDelta) {
+        long delta = timer.tick - currentTick;
+        if (delta < minDelta) {
+            delta = minDelta;
+        } else if (delta > MAX_SPAN_TICKS) {
+            delta = MAX_SPAN_TICKS;
+        }
+        long tick = currentTick + delta;
+        timer.tick = tick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        wheels[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)].add(timer);
+    }
+
+    private long toTick(long nanos) {
+        long elapsed = nanos - originNanos;
+        // arrondi au tick supérieur : une entrée n'expire jamais avant son échéance
+        return elapsed <= 0 ? 0 : (elapsed + tickNanos - 1) / tickNanos;
+    }
+
+    private static final class Timer<T> {
+        final T item;
+        long tick;
+
+        Timer(T item, long tick) {
+            this.item = item;
+            this.tick = tick;
+        }
+    }
+}
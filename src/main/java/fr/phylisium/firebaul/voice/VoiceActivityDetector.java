@@ -0,0 +1,17 @@
+package fr.phylisium.firebaul.keyword;
+
+/**
+ * Étape de détection d'activité vocale entre le décodage et le recognizer.
+ * Une instance par session (l'état de hangover est propre au joueur), appelée depuis un seul thread à la fois.
+ */
+public interface VoiceActivityDetector {
+    /**
+     * Indique si la trame PCM 16 kHz mono contient de la parole (hangover inclus).
+     */
+    boolean isSpeech(short[] samples, int length);
+
+    /**
+     * Oublie l'état courant (début d'une nouvelle session ou d'un nouvel énoncé).
+     */
+    void reset();
+}
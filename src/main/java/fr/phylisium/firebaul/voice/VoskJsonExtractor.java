@@ -0,0 +1,133 @@
+package fr.phylisium.firebaul.keyword;
+
+/**
+ * Extraction d'un champ texte de premier niveau dans un résultat JSON Vosk
+ * ({@code {"partial" : "..."}} ou {@code {"text" : "...", "result" : [...]}}) sans construire d'arbre Gson.
+ * Un seul parcours du JSON ; la seule allocation est la chaîne retournée.
+ */
+public class VoskJsonExtractor {
+
+    /**
+     * Retourne la valeur (trimée) du champ chaîne {@code field} à la racine de l'objet,
+     * ou null si le champ est absent, non textuel, vide ou si le JSON est malformé.
+     */
+    public static String extract(String json, String field) {
+        if (json == null || json.isEmpty() || field == null) {
+            return null;
+        }
+        int n = json.length();
+        int depth = 0;
+        int i = 0;
+        while (i < n) {
+            char c = json.charAt(i);
+            switch (c) {
+                case '{', '[' -> {
+                    depth++;
+                    i++;
+                }
+                case '}', ']' -> {
+                    depth--;
+                    i++;
+                }
+                case '"' -> {
+                    int end = skipString(json, i);
+                    if (end < 0) {
+                        return null;
+                    }
+                    if (depth == 1 && isField(json, i + 1, end - 1, field)) {
+                        int colon = skipWhitespace(json, end);
+                        if (colon < n && json.charAt(colon) == ':') {
+                            return readStringValue(json, skipWhitespace(json, colon + 1));
+                        }
+                    }
+                    i = end;
+                }
+                default -> i++;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retourne l'indice qui suit le guillemet fermant de la chaîne ouverte en {@code start}, -1 si non terminée.
+     */
+    private static int skipString(String json, int start) {
+        int n = json.length();
+        for (int i = start + 1; i < n; i++) {
+            char c = json.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isField(String json, int from, int to, String field) {
+        return to - from == field.length() && json.regionMatches(from, field, 0, field.length());
+    }
+
+    private static int skipWhitespace(String json, int i) {
+        int n = json.length();
+        while (i < n && Character.isWhitespace(json.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static String readStringValue(String json, int i) {
+        if (i >= json.length() || json.charAt(i) != '"') {
+            return null;
+        }
+        int end = skipString(json, i);
+        if (end < 0) {
+            return null;
+        }
+        int from = i + 1;
+        int to = end - 1;
+        int escape = json.indexOf('\\', from);
+        if (escape < 0 || escape >= to) {
+            // cas courant : pas d'échappement, on découpe directement la partie utile
+            while (from < to && json.charAt(from) <= ' ') from++;
+            while (to > from && json.charAt(to - 1) <= ' ') to--;
+            return from == to ? null : json.substring(from, to);
+        }
+        String decoded = unescape(json, from, to).trim();
+        return decoded.isEmpty() ? null : decoded;
+    }
+
+    private static String unescape(String json, int from, int to) {
+        StringBuilder sb = new StringBuilder(to - from);
+        for (int i = from; i < to; i++) {
+            char c = json.charAt(i);
+            if (c != '\\' || i + 1 >= to) {
+                sb.append(c);
+                continue;
+            }
+            char e = json.charAt(++i);
+            switch (e) {
+                case 'n' -> sb.append('\n');
+                case 't' -> sb.append('\t');
+                case 'r' -> sb.append('\r');
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'u' -> {
+                    if (i + 4 >= to) {
+                        // séquence tronquée : gardée telle quelle, les chiffres présents suivent dans la boucle
+                        sb.append('\\').append('u');
+                        continue;
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(json, i + 1, i + 5, 16));
+                    } catch (NumberFormatException ex) {
+                        sb.append('?');
+                    }
+                    i += 4;
+                }
+                default -> sb.append(e);
+            }
+        }
+        return sb.toString();
+    }
+}
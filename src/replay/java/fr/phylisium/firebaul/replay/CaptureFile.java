@@ -0,0 +1,56 @@
+package fr.phylisium.firebaul.replay;
+
+import fr.phylisium.firebaul.keyword.OpusCaptureReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Session voice chat enregistrée par {@code OpusCaptureWriter}, relue avec {@link OpusCaptureReader}.
+ */
+final class CaptureFile {
+    final Path path;
+    final long[] timestampsMicros;
+    final byte[][] frames;
+
+    private CaptureFile(Path path, long[] timestampsMicros, byte[][] frames) {
+        this.path = path;
+        this.timestampsMicros = timestampsMicros;
+        this.frames = frames;
+    }
+
+    static CaptureFile read(Path path) throws IOException {
+        List<Long> timestamps = new ArrayList<>();
+        List<byte[]> frames = new ArrayList<>();
+        OpusCaptureReader.read(path, (timestampMicros, frame) -> {
+            timestamps.add(timestampMicros);
+            frames.add(frame);
+        });
+        long[] ts = new long[timestamps.size()];
+        for (int i = 0; i < ts.length; i++) {
+            ts[i] = timestamps.get(i);
+        }
+        return new CaptureFile(path, ts, frames.toArray(new byte[0][]));
+    }
+
+    int size() {
+        return frames.length;
+    }
+
+    /**
+     * Durée couverte par l'enregistrement (µs), une trame de 20 ms comprise.
+     */
+    long durationMicros() {
+        return frames.length == 0 ? 0 : timestampsMicros[frames.length - 1] + 20_000;
+    }
+
+    /**
+     * Indique si la trame {@code index} termine un énoncé : dernière du fichier, ou suivie d'un silence
+     * (aucune trame) d'au moins {@code gapMicros}. Le voice chat n'envoie rien quand le joueur se tait.
+     */
+    boolean endsUtterance(int index, long gapMicros) {
+        return index == frames.length - 1 || timestampsMicros[index + 1] - timestampsMicros[index] >= gapMicros;
+    }
+}
@@ -0,0 +1,368 @@
+package fr.phylisium.firebaul.replay;
+
+import fr.phylisium.firebaul.keyword.SpeechRecognitionService;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Rejoue hors ligne des sessions voice chat enregistrées ({@code speech.capture.dir}) à travers
+ * {@link SpeechRecognitionService#acceptOpus}, avec un serveur Bukkit simulé et un modèle Vosk local.
+ * <p>
+ * Chaque locuteur simulé rejoue un fichier de capture (les fichiers sont réutilisés en boucle si
+ * {@code --speakers} dépasse leur nombre), en temps réel ou à vitesse maximale. Le rapport donne les
+ * percentiles du délai fin d'énoncé -> déclenchement du mot-clé et le CPU consommé par locuteur.
+ * <pre>
+ * ./gradlew replay -PreplayArgs="--model /srv/vosk-fr --captures captures/ --speakers 20 --speed realtime"
+ * </pre>
+ * Options : {@code --model <dir>}, {@code --captures <dir|fichier>}, {@code --speakers <n>},
+ * {@code --speed realtime|max}, {@code --gap-ms <ms>} (silence qui termine un énoncé, 300 par défaut),
+ * {@code --stagger-ms <ms>} (décalage entre les départs des locuteurs), {@code --drain-ms <ms>}
+ * (attente des derniers résultats), {@code --set <clé>=<valeur>} (surcharge de config.yml, répétable).
+ */
+public final class ReplayHarness {
+    private final Path modelDir;
+    private final List<CaptureFile> captures;
+    private final int speakers;
+    private final boolean realtime;
+    private final long gapMicros;
+    private final long staggerMillis;
+    private final long drainMillis;
+    private final YamlConfiguration config;
+
+    private final Map<UUID, Speaker> speakersById = new ConcurrentHashMap<>();
+    private final List<Trigger> triggers = new CopyOnWriteArrayList<>();
+
+    private ReplayHarness(Path modelDir, List<CaptureFile> captures, int speakers, boolean realtime, long gapMicros,
+                          long staggerMillis, long drainMillis, YamlConfiguration config) {
+        this.modelDir = modelDir;
+        this.captures = captures;
+        this.speakers = speakers;
+        this.realtime = realtime;
+        this.gapMicros = gapMicros;
+        this.staggerMillis = staggerMillis;
+        this.drainMillis = drainMillis;
+        this.config = config;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path model = null;
+        Path capturePath = null;
+        int speakers = 0;
+        boolean realtime = true;
+        long gapMs = 300;
+        long staggerMs = 250;
+        long drainMs = 3000;
+        YamlConfiguration config = defaultConfig();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (arg) {
+                case "--model" -> model = Path.of(require(arg, value));
+                case "--captures" -> capturePath = Path.of(require(arg, value));
+                case "--speakers" -> speakers = Integer.parseInt(require(arg, value));
+                case "--speed" -> realtime = !"max".equalsIgnoreCase(require(arg, value));
+                case "--gap-ms" -> gapMs = Long.parseLong(require(arg, value));
+                case "--stagger-ms" -> staggerMs = Long.parseLong(require(arg, value));
+                case "--drain-ms" -> drainMs = Long.parseLong(require(arg, value));
+                case "--set" -> applyOverride(config, require(arg, value));
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+            i++;
+        }
+        if (model == null || capturePath == null) {
+            System.err.println("Usage: ReplayHarness --model <vosk model dir> --captures <dir|file> [--speakers n] [--speed realtime|max]"
+                    + " [--gap-ms ms] [--stagger-ms ms] [--drain-ms ms] [--set key=value]...");
+            System.exit(2);
+        }
+        List<CaptureFile> captures = loadCaptures(capturePath);
+        if (captures.isEmpty()) {
+            throw new IllegalArgumentException("No capture found in " + capturePath);
+        }
+        if (!realtime) {
+            // à vitesse maximale, une file bornée ne mesurerait que les trames perdues
+            config.set("speech.queue.capacity", Math.max(config.getInt("speech.queue.capacity", 50), 1 << 16));
+        }
+        new ReplayHarness(model, captures, speakers > 0 ? speakers : captures.size(), realtime, gapMs * 1000,
+                staggerMs, drainMs, config).run();
+    }
+
+    private void run() throws Exception {
+        StubServer stub = new StubServer(config, Files.createTempDirectory("firebaul-replay").toFile());
+        stub.install();
+        SpeechRecognitionService service = new SpeechRecognitionService(stub.plugin);
+        service.setMainThreadExecutor(stub::runOnMain);
+        service.setTriggerObserver((playerId, keyword, reason, nanoTime) -> {
+            Speaker speaker = speakersById.get(playerId);
+            if (speaker != null) {
+                triggers.add(new Trigger(speaker, keyword, reason, nanoTime));
+            }
+        });
+        if (service.loadModelAsync(modelDir.toFile()).join() != SpeechRecognitionService.ModelState.READY) {
+            stub.shutdown();
+            throw new IllegalStateException("Unable to load Vosk model from " + modelDir);
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        long cpuStart = os.getProcessCpuTime();
+        long wallStart = System.nanoTime();
+
+        List<Thread> feeders = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(speakers);
+        for (int i = 0; i < speakers; i++) {
+            Speaker speaker = new Speaker(UUID.randomUUID(), captures.get(i % captures.size()));
+            speakersById.put(speaker.id, speaker);
+            long startDelayNanos = TimeUnit.MILLISECONDS.toNanos(staggerMillis * i);
+            Thread feeder = new Thread(() -> {
+                try {
+                    feed(service, speaker, wallStart + startDelayNanos);
+                } finally {
+                    done.countDown();
+                }
+            }, "replay-speaker-" + i);
+            feeder.setDaemon(true);
+            feeders.add(feeder);
+        }
+        feeders.forEach(Thread::start);
+        done.await();
+        Thread.sleep(drainMillis);
+
+        long recognitionCpu = recognitionThreadsCpu(threads);
+        long cpu = os.getProcessCpuTime() - cpuStart;
+        long wall = System.nanoTime() - wallStart;
+        long dropped = service.getDroppedFrames();
+        List<String> metrics = service.getMetrics().snapshotLines();
+        service.shutdown();
+        stub.shutdown();
+        report(cpu, recognitionCpu, wall, dropped);
+        metrics.forEach(System.out::println);
+    }
+
+    private void feed(SpeechRecognitionService service, Speaker speaker, long startNanos) {
+        CaptureFile capture = speaker.capture;
+        LockSupport.parkNanos(startNanos - System.nanoTime());
+        long utteranceStart = -1;
+        for (int i = 0; i < capture.size(); i++) {
+            if (realtime) {
+                long due = startNanos + TimeUnit.MICROSECONDS.toNanos(capture.timestampsMicros[i]);
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            long now = System.nanoTime();
+            if (utteranceStart < 0) {
+                utteranceStart = now;
+            }
+            service.acceptOpus(speaker.id, capture.frames[i]);
+            if (capture.endsUtterance(i, gapMicros)) {
+                speaker.utterances.add(new long[]{utteranceStart, System.nanoTime()});
+                utteranceStart = -1;
+            }
+        }
+    }
+
+    /**
+     * CPU cumulé des threads de reconnaissance encore vivants (pool partagé ou threads dédiés).
+     */
+    private static long recognitionThreadsCpu(ThreadMXBean threads) {
+        if (!threads.isThreadCpuTimeSupported()) {
+            return -1;
+        }
+        long total = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("speech-recog")) {
+                long cpu = threads.getThreadCpuTime(thread.threadId());
+                if (cpu > 0) {
+                    total += cpu;
+                }
+            }
+        }
+        return total;
+    }
+
+    private void report(long processCpuNanos, long recognitionCpuNanos, long wallNanos, long dropped) {
+        List<Double> afterEnd = new ArrayList<>();
+        int midUtterance = 0;
+        int unattributed = 0;
+        for (Trigger trigger : triggers) {
+            long[] utterance = trigger.speaker.utteranceAt(trigger.nanoTime);
+            if (utterance == null) {
+                unattributed++;
+                continue;
+            }
+            long latency = trigger.nanoTime - utterance[1];
+            if (latency < 0) {
+                // déclenché sur un partiel stable avant la fin de l'énoncé
+                midUtterance++;
+            } else {
+                afterEnd.add(latency / 1e6);
+            }
+        }
+        Collections.sort(afterEnd);
+        double audioSeconds = 0;
+        for (Speaker speaker : speakersById.values()) {
+            audioSeconds += speaker.capture.durationMicros() / 1e6;
+        }
+        double wallSeconds = wallNanos / 1e9;
+
+        System.out.printf(Locale.ROOT, "speakers=%d captures=%d speed=%s audio=%.1fs wall=%.1fs droppedFrames=%d%n",
+                speakers, captures.size(), realtime ? "realtime" : "max", audioSeconds, wallSeconds, dropped);
+        System.out.printf(Locale.ROOT, "triggers=%d afterUtteranceEnd=%d midUtterance=%d unattributed=%d%n",
+                triggers.size(), afterEnd.size(), midUtterance, unattributed);
+        Map<String, Long> byOrigin = new TreeMap<>();
+        for (Trigger trigger : triggers) {
+            byOrigin.merge(trigger.keyword + " " + trigger.reason, 1L, Long::sum);
+        }
+        byOrigin.forEach((origin, count) -> System.out.printf(Locale.ROOT, "  %s x%d%n", origin, count));
+        if (!afterEnd.isEmpty()) {
+            System.out.printf(Locale.ROOT, "utterance end -> trigger (ms): p50=%.1f p90=%.1f p99=%.1f max=%.1f%n",
+                    percentile(afterEnd, 50), percentile(afterEnd, 90), percentile(afterEnd, 99), afterEnd.get(afterEnd.size() - 1));
+        }
+        double cpuPerSpeakerMs = processCpuNanos / 1e6 / speakers;
+        System.out.printf(Locale.ROOT, "process cpu: %.0f ms total, %.0f ms/speaker, %.1f%% of a core per speaker%n",
+                processCpuNanos / 1e6, cpuPerSpeakerMs, 100.0 * processCpuNanos / wallNanos / speakers);
+        if (recognitionCpuNanos >= 0) {
+            System.out.printf(Locale.ROOT, "recognition threads cpu: %.0f ms/speaker, %.1f ms per audio second%n",
+                    recognitionCpuNanos / 1e6 / speakers, audioSeconds > 0 ? recognitionCpuNanos / 1e6 / audioSeconds : 0);
+        }
+        for (Speaker speaker : speakersById.values()) {
+            long count = triggers.stream().filter(t -> t.speaker == speaker).count();
+            System.out.printf(Locale.ROOT, "  %s %s utterances=%d triggers=%d%n",
+                    speaker.id, speaker.capture.path.getFileName(), speaker.utterances.size(), count);
+        }
+    }
+
+    private static double percentile(List<Double> sorted, double p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, index)));
+    }
+
+    private static List<CaptureFile> loadCaptures(Path path) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> stream = Files.list(path)) {
+                stream.filter(Files::isRegularFile).sorted().forEach(files::add);
+            }
+        } else {
+            files.add(path);
+        }
+        List<CaptureFile> captures = new ArrayList<>();
+        for (Path file : files) {
+            CaptureFile capture = CaptureFile.read(file);
+            if (capture.size() > 0) {
+                captures.add(capture);
+            }
+        }
+        return captures;
+    }
+
+    /**
+     * Configuration du plugin (config.yml embarqué), debug et journal des triggers désactivés.
+     */
+    private static YamlConfiguration defaultConfig() throws IOException {
+        YamlConfiguration config = new YamlConfiguration();
+        try (InputStream in = ReplayHarness.class.getClassLoader().getResourceAsStream("config.yml")) {
+            if (in != null) {
+                config = YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+        }
+        config.set("speech.debug", false);
+        config.set("speech.log.levels.trigger", "off");
+        config.set("speech.capture.dir", "");
+        return config;
+    }
+
+    private static void applyOverride(YamlConfiguration config, String assignment) {
+        int eq = assignment.indexOf('=');
+        if (eq <= 0) {
+            throw new IllegalArgumentException("Expected key=value, got " + assignment);
+        }
+        String key = assignment.substring(0, eq).trim();
+        String raw = assignment.substring(eq + 1).trim();
+        Object value;
+        if (raw.equalsIgnoreCase("true") || raw.equalsIgnoreCase("false")) {
+            value = Boolean.parseBoolean(raw);
+        } else {
+            try {
+                value = Long.parseLong(raw);
+            } catch (NumberFormatException notLong) {
+                try {
+                    value = Double.parseDouble(raw);
+                } catch (NumberFormatException notDouble) {
+                    value = raw;
+                }
+            }
+        }
+        config.set(key, value);
+    }
+
+    private static String require(String option, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return value;
+    }
+
+    private static final class Speaker {
+        final UUID id;
+        final CaptureFile capture;
+        // [début, fin] de chaque énoncé, en nanoTime au moment où la trame a été injectée
+        final List<long[]> utterances = new CopyOnWriteArrayList<>();
+
+        Speaker(UUID id, CaptureFile capture) {
+            this.id = id;
+            this.capture = capture;
+        }
+
+        /**
+         * Dernier énoncé commencé avant {@code nanoTime} : celui auquel le déclenchement se rapporte.
+         */
+        long[] utteranceAt(long nanoTime) {
+            long[] match = null;
+            for (long[] utterance : utterances) {
+                if (utterance[0] <= nanoTime) {
+                    match = utterance;
+                }
+            }
+            return match;
+        }
+    }
+
+    private static final class Trigger {
+        final Speaker speaker;
+        final String keyword;
+        final String reason;
+        final long nanoTime;
+
+        Trigger(Speaker speaker, String keyword, String reason, long nanoTime) {
+            this.speaker = speaker;
+            this.keyword = keyword;
+            this.reason = reason;
+            this.nanoTime = nanoTime;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package fr.phylisium.firebaul.replay;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.command.CommandMap;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Serveur Bukkit minimal pour faire tourner la reconnaissance hors d'un vrai serveur : un thread
+ * « principal » cadencé à 20 ticks/s, un pool pour les tâches asynchrones, aucun joueur en ligne.
+ * Server, BukkitScheduler, PluginManager et Plugin sont des proxys ; les méthodes non simulées
+ * retournent la valeur par défaut de leur type.
+ */
+final class StubServer {
+    private static final long TICK_MILLIS = 50;
+
+    private final Logger logger = Logger.getLogger("FirebaulReplay");
+    private final AtomicInteger taskIds = new AtomicInteger(1);
+    private final Map<Integer, ScheduledFuture<?>> tasks = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService main;
+    private final ScheduledExecutorService async;
+    private final ExecutorService asyncOnce;
+    private volatile Thread mainThread;
+
+    final Server server;
+    final Plugin plugin;
+
+    StubServer(FileConfiguration config, File dataFolder) {
+        this.main = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replay-main");
+            t.setDaemon(true);
+            mainThread = t;
+            return t;
+        });
+        this.async = Executors.newScheduledThreadPool(2, daemon("replay-async-timer"));
+        this.asyncOnce = Executors.newCachedThreadPool(daemon("replay-async"));
+        BukkitScheduler scheduler = proxy(BukkitScheduler.class, this::onScheduler);
+        PluginManager pluginManager = proxy(PluginManager.class, (method, args) -> null);
+        CommandMap commandMap = proxy(CommandMap.class, (method, args) -> null);
+        this.server = proxy(Server.class, (method, args) -> switch (method.getName()) {
+            case "getLogger" -> logger;
+            case "getName" -> "FirebaulReplay";
+            case "getVersion", "getBukkitVersion" -> "replay";
+            case "getScheduler" -> scheduler;
+            case "getPluginManager" -> pluginManager;
+            case "getCommandMap" -> commandMap;
+            case "isPrimaryThread" -> Thread.currentThread() == mainThread;
+            default -> null;
+        });
+        this.plugin = proxy(Plugin.class, (method, args) -> switch (method.getName()) {
+            case "getLogger" -> logger;
+            case "getConfig" -> config;
+            case "getName" -> "Firebaul";
+            case "getDataFolder" -> dataFolder;
+            case "isEnabled" -> true;
+            case "getServer" -> server;
+            default -> null;
+        });
+    }
+
+    /**
+     * Installe le serveur simulé dans {@link Bukkit} sans passer par {@link Bukkit#setServer}, qui
+     * interroge des informations de build absentes hors serveur.
+     */
+    void install() throws ReflectiveOperationException {
+        Field field = Bukkit.class.getDeclaredField("server");
+        field.setAccessible(true);
+        field.set(null, server);
+    }
+
+    /**
+     * Exécute une tâche sur le thread « principal » simulé.
+     */
+    void runOnMain(Runnable task) {
+        main.execute(task);
+    }
+
+    void shutdown() {
+        main.shutdownNow();
+        async.shutdownNow();
+        asyncOnce.shutdownNow();
+    }
+
+    private Object onScheduler(Method method, Object[] args) {
+        switch (method.getName()) {
+            case "runTask", "runTaskLater", "runTaskTimer", "runTaskAsynchronously", "runTaskLaterAsynchronously", "runTaskTimerAsynchronously" -> {
+                if (args.length < 2 || !(args[1] instanceof Runnable task)) {
+                    throw new UnsupportedOperationException("Replay scheduler only supports Runnable tasks: " + method);
+                }
+                boolean isAsync = method.getName().endsWith("Asynchronously");
+                long delay = args.length > 2 ? (long) args[2] : 0;
+                long period = args.length > 3 ? (long) args[3] : -1;
+                return schedule(task, isAsync, delay, period);
+            }
+            case "cancelTask" -> {
+                ScheduledFuture<?> future = tasks.remove((int) args[0]);
+                if (future != null) {
+                    future.cancel(false);
+                }
+                return null;
+            }
+            default -> {
+                return defaultValue(method.getReturnType());
+            }
+        }
+    }
+
+    private BukkitTask schedule(Runnable task, boolean isAsync, long delayTicks, long periodTicks) {
+        int id = taskIds.getAndIncrement();
+        Runnable guarded = () -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                logger.warning("Replay task " + id + " failed: " + t);
+            }
+        };
+        ScheduledFuture<?> future;
+        if (isAsync && periodTicks < 0 && delayTicks <= 0) {
+            asyncOnce.execute(guarded);
+            future = null;
+        } else {
+            ScheduledExecutorService executor = isAsync ? async : main;
+            future = periodTicks > 0
+                    ? executor.scheduleAtFixedRate(guarded, delayTicks * TICK_MILLIS, periodTicks * TICK_MILLIS, TimeUnit.MILLISECONDS)
+                    : executor.schedule(guarded, Math.max(0, delayTicks) * TICK_MILLIS, TimeUnit.MILLISECONDS);
+            tasks.put(id, future);
+        }
+        return proxy(BukkitTask.class, (method, args) -> switch (method.getName()) {
+            case "getTaskId" -> id;
+            case "getOwner" -> plugin;
+            case "isSync" -> !isAsync;
+            case "isCancelled" -> future != null && future.isCancelled();
+            case "cancel" -> {
+                if (future != null) {
+                    future.cancel(false);
+                    tasks.remove(id);
+                }
+                yield null;
+            }
+            default -> defaultValue(method.getReturnType());
+        });
+    }
+
+    private static java.util.concurrent.ThreadFactory daemon(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        InvocationHandler invocation = (proxy, method, args) -> {
+            Object[] safeArgs = args == null ? new Object[0] : args;
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == safeArgs[0];
+                    default -> type.getSimpleName() + "Stub";
+                };
+            }
+            Object result = handler.handle(method, safeArgs);
+            return result != null ? result : defaultValue(method.getReturnType());
+        };
+        return (T) Proxy.newProxyInstance(StubServer.class.getClassLoader(), new Class<?>[]{type}, invocation);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == long.class) return 0L;
+        if (type == int.class) return 0;
+        if (type == double.class) return 0d;
+        if (type == float.class) return 0f;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        return '\0';
+    }
+}
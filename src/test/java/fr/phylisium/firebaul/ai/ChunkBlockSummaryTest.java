@@ -0,0 +1,108 @@
+package fr.phylisium.firebaul.ai;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChunkBlockSummaryTest {
+    // matériaux de la section mixte et leur nombre de blocs (total 4096), dans l'ordre de remplissage
+    private static final Material[] MIXED = {Material.DIAMOND_ORE, Material.GOLD_ORE, Material.GRAVEL, Material.SAND,
+            Material.WATER, Material.IRON_ORE, Material.COAL_ORE, Material.GRASS_BLOCK, Material.DIRT, Material.STONE};
+    private static final int[] MIXED_COUNTS = {16, 30, 100, 150, 300, 400, 500, 700, 900, 1000};
+
+    @FunctionalInterface
+    private interface Blocks {
+        Material at(int x, int y, int z);
+    }
+
+    /**
+     * ChunkSnapshot minimal : seules les méthodes lues par le résumé sont disponibles.
+     */
+    private static ChunkSnapshot snapshot(int chunkX, int chunkZ, Blocks blocks, IntPredicate emptySection) {
+        return (ChunkSnapshot) Proxy.newProxyInstance(ChunkSnapshot.class.getClassLoader(), new Class<?>[]{ChunkSnapshot.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getX" -> chunkX;
+                    case "getZ" -> chunkZ;
+                    case "getWorldName" -> "world";
+                    case "isSectionEmpty" -> emptySection.test((Integer) args[0]);
+                    case "getBlockType" -> blocks.at((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static Material mixed(int x, int y, int z) {
+        int index = (y << 8) | (x << 4) | z;
+        for (int i = 0; i < MIXED.length; i++) {
+            if (index < MIXED_COUNTS[i]) {
+                return MIXED[i];
+            }
+            index -= MIXED_COUNTS[i];
+        }
+        throw new IllegalStateException();
+    }
+
+    @Test
+    void summarizesEachSectionAndSkipsEmptyOnes() {
+        ChunkSnapshot snapshot = snapshot(4, 7, (x, y, z) -> {
+            if (y == -64) {
+                return Material.BEDROCK;
+            }
+            if (y < 0) {
+                return Material.STONE;
+            }
+            if (y < 16) {
+                return mixed(x, y, z);
+            }
+            throw new AssertionError("empty section read at y=" + y);
+        }, section -> section >= 5);
+
+        assertEquals(List.of(
+                "Chunk 4,7 (world), y -64..319",
+                "y -64..-49: stone=3840, bedrock=256",
+                "y -48..-33: uniforme stone=4096",
+                "y -32..-17: uniforme stone=4096",
+                "y -16..-1: uniforme stone=4096",
+                "y 0..15: stone=1000, dirt=900, grass_block=700, coal_ore=500, iron_ore=400, water=300, sand=150, "
+                        + "gravel=100, autres (2 types)=46",
+                "19 section(s) vide(s) (air) ignorée(s)"
+        ), ChunkBlockSummary.summarize(snapshot, -64, 320));
+    }
+
+    @Test
+    void clipsTheLastSectionToTheWorldHeight() {
+        ChunkSnapshot snapshot = snapshot(2, -3, (x, y, z) -> Material.STONE, section -> false);
+        assertEquals(List.of(
+                "Chunk 2,-3 (world), y 0..39",
+                "y 0..15: uniforme stone=4096",
+                "y 16..31: uniforme stone=4096",
+                "y 32..39: uniforme stone=2048"
+        ), ChunkBlockSummary.summarize(snapshot, 0, 40));
+    }
+
+    @Test
+    void countsDoNotLeakBetweenSections() {
+        ChunkSnapshot snapshot = snapshot(0, 0, (x, y, z) -> y < 16 ? Material.DIRT : Material.SAND, section -> false);
+        assertEquals(List.of(
+                "Chunk 0,0 (world), y 0..31",
+                "y 0..15: uniforme dirt=4096",
+                "y 16..31: uniforme sand=4096"
+        ), ChunkBlockSummary.summarize(snapshot, 0, 32));
+    }
+
+    @Test
+    void fullyEmptyChunkOnlyReportsSkippedSections() {
+        ChunkSnapshot snapshot = snapshot(1, 1, (x, y, z) -> {
+            throw new AssertionError("empty section read at y=" + y);
+        }, section -> true);
+        assertEquals(List.of(
+                "Chunk 1,1 (world), y -64..319",
+                "24 section(s) vide(s) (air) ignorée(s)"
+        ), ChunkBlockSummary.summarize(snapshot, -64, 320));
+    }
+}
@@ -0,0 +1,122 @@
+package fr.phylisium.firebaul.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CommandSanitizerTest {
+    private final CommandSanitizer sanitizer = CommandSanitizer.withDefaultRules();
+
+    @Test
+    void tokenizerKeepsBlocksWhole() {
+        assertEquals(List.of("give", "@p", "diamond_sword{Enchantments:[{id:sharpness, lvl:5}]}", "1"),
+                CommandSanitizer.tokenize("give @p diamond_sword{Enchantments:[{id:sharpness, lvl:5}]} 1"));
+    }
+
+    @Test
+    void tokenizerKeepsQuotedStringsWhole() {
+        assertEquals(List.of("summon", "zombie", "{CustomName:'\"Bob le zombie\"',Tags:[a, b]}"),
+                CommandSanitizer.tokenize("summon zombie {CustomName:'\"Bob le zombie\"',Tags:[a, b]}"));
+        assertEquals(List.of("say", "\"a \\\" b\"", "c"), CommandSanitizer.tokenize("say \"a \\\" b\" c"));
+    }
+
+    @Test
+    void tokenizerCollapsesWhitespaceAndExtendsUnclosedBlocks() {
+        assertEquals(List.of("tp", "@p", "0", "64", "0"), CommandSanitizer.tokenize("  tp\t@p   0 64 0 "));
+        assertEquals(List.of("give", "@p", "stone{a:1 2"), CommandSanitizer.tokenize("give @p stone{a:1 2"));
+        assertEquals(List.of(), CommandSanitizer.tokenize("   "));
+    }
+
+    @Test
+    void stripsTheLeadingSlash() {
+        assertEquals("tp @p 0 64 0", sanitizer.sanitize("/tp @p 0 64 0"));
+    }
+
+    @Test
+    void returnsTheSameStringWhenNothingChanges() {
+        String command = "give @p minecraft:diamond 3";
+        assertSame(command, sanitizer.sanitize(command));
+        assertNull(sanitizer.sanitize(null));
+        assertEquals("   ", sanitizer.sanitize("   "));
+    }
+
+    @Test
+    void giveNamespacesTheItem() {
+        assertEquals("give @p minecraft:diamond 3", sanitizer.sanitize("/give @p diamond 3"));
+        assertEquals("minecraft:give @p minecraft:diamond", sanitizer.sanitize("minecraft:give @p diamond"));
+    }
+
+    @Test
+    void giveQuotesNbtIdsAndMovesTheCountBeforeTheNbt() {
+        assertEquals("give @p minecraft:diamond_sword 1 {Enchantments:[{id:\"minecraft:sharpness\",lvl:5}]}",
+                sanitizer.sanitize("give @p diamond_sword{Enchantments:[{id:sharpness,lvl:5}]} 1"));
+    }
+
+    @Test
+    void giveJoinsNbtSeparatedFromTheItem() {
+        assertEquals("give @p minecraft:diamond_sword{Enchantments:[{id:\"minecraft:sharpness\",lvl:1}]}",
+                sanitizer.sanitize("give @p diamond_sword {Enchantments:[{id:sharpness,lvl:1}]}"));
+    }
+
+    @Test
+    void quoteIdsLeavesQuotedNamespacedAndOtherKeysAlone() {
+        String quoted = "{id:\"minecraft:sharpness\"}";
+        assertSame(quoted, CommandSanitizer.quoteIds(quoted));
+        String namespaced = "{id:minecraft:sharpness}";
+        assertSame(namespaced, CommandSanitizer.quoteIds(namespaced));
+        String otherKey = "{ItemId:stone,\"id\":x}";
+        assertSame(otherKey, CommandSanitizer.quoteIds(otherKey));
+        assertEquals("{A:{id:\"minecraft:a\"},B:{ID:\"minecraft:b\"}}", CommandSanitizer.quoteIds("{A:{id:a},B:{ID:b}}"));
+    }
+
+    @Test
+    void summonNamespacesTheEntityAndQuotesNbtIds() {
+        assertEquals("summon minecraft:zombie ~ ~1 ~ {HandItems:[{id:\"minecraft:iron_sword\",Count:1}]}",
+                sanitizer.sanitize("summon zombie ~ ~1 ~ {HandItems:[{id:iron_sword,Count:1}]}"));
+    }
+
+    @Test
+    void effectGainsTheGiveActionOfTheLegacyForm() {
+        assertEquals("effect give @p minecraft:speed 10 1", sanitizer.sanitize("effect @p speed 10 1"));
+        assertEquals("effect give @p minecraft:speed", sanitizer.sanitize("effect give @p speed"));
+        String clear = "effect clear @p";
+        assertSame(clear, sanitizer.sanitize(clear));
+    }
+
+    @Test
+    void positionalRulesNamespaceTheirArgument() {
+        assertEquals("setblock ~ ~1 ~ minecraft:oak_stairs[facing=north]", sanitizer.sanitize("setblock ~ ~1 ~ oak_stairs[facing=north]"));
+        assertEquals("fill 0 0 0 1 1 1 minecraft:stone", sanitizer.sanitize("fill 0 0 0 1 1 1 stone"));
+        assertEquals("particle minecraft:flame ~ ~ ~", sanitizer.sanitize("particle flame ~ ~ ~"));
+        // coordonnées relatives et sélecteurs ne sont pas des identifiants
+        String relative = "setblock ~ ~ ~";
+        assertSame(relative, sanitizer.sanitize(relative));
+    }
+
+    @Test
+    void registeringARuleInvalidatesTheCache() {
+        CommandSanitizer custom = new CommandSanitizer();
+        assertEquals("say salut", custom.sanitize("say salut"));
+        custom.register("SAY", args -> {
+            args.set(0, "bonjour");
+            return true;
+        });
+        assertEquals("say bonjour", custom.sanitize("say salut"));
+    }
+
+    @Test
+    void cacheKeepsTheMostRecentCommands() {
+        CommandSanitizer small = new CommandSanitizer(1);
+        small.register("give", CommandSanitizer::rewriteGive);
+        String first = small.sanitize("/give @p diamond");
+        assertSame(first, small.sanitize(new String("/give @p diamond")));
+        small.sanitize("/give @p stone");
+        // évincée par la commande suivante : réécrite à nouveau
+        assertNotSame(first, small.sanitize(new String("/give @p diamond")));
+    }
+}
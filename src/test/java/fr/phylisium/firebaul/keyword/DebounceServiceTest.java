@@ -0,0 +1,185 @@
+package fr.phylisium.firebaul.keyword;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DebounceServiceTest {
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+
+    private static UUID player(int i) {
+        return new UUID(0x5EED_0000_0000_0000L + i, i * 31L);
+    }
+
+    @Test
+    void rejectsTriggersInsideTheWindow() {
+        DebounceService debounce = new DebounceService();
+        int fireball = debounce.keywordId("boule de feu");
+        UUID player = player(1);
+        assertTrue(debounce.tryAcquire(player, fireball, HOUR_MS));
+        assertFalse(debounce.tryAcquire(player, fireball, HOUR_MS));
+        // fenêtre nulle : toujours écoulée
+        assertTrue(debounce.tryAcquire(player, fireball, 0));
+        assertEquals(1, debounce.size());
+    }
+
+    @Test
+    void playersAndKeywordsAreIndependent() {
+        DebounceService debounce = new DebounceService();
+        int fireball = debounce.keywordId("boule de feu");
+        int shield = debounce.keywordId("bouclier");
+        assertNotEquals(fireball, shield);
+        assertEquals(fireball, debounce.keywordId("boule de feu"));
+        assertTrue(debounce.tryAcquire(player(1), fireball, HOUR_MS));
+        assertTrue(debounce.tryAcquire(player(1), shield, HOUR_MS));
+        assertTrue(debounce.tryAcquire(player(2), fireball, HOUR_MS));
+        assertEquals(3, debounce.size());
+    }
+
+    @Test
+    void growingTheTableKeepsEveryEntry() {
+        DebounceService debounce = new DebounceService(16);
+        int keyword = debounce.keywordId("soin");
+        for (int i = 0; i < 500; i++) {
+            assertTrue(debounce.tryAcquire(player(i), keyword, HOUR_MS), "player " + i);
+        }
+        assertEquals(500, debounce.size());
+        // chaque trigger a survécu aux reconstructions successives
+        for (int i = 0; i < 500; i++) {
+            assertFalse(debounce.tryAcquire(player(i), keyword, HOUR_MS), "player " + i);
+        }
+    }
+
+    @Test
+    void concurrentTriggersOnOneKeyHaveASingleWinner() throws Exception {
+        DebounceService debounce = new DebounceService();
+        int keyword = debounce.keywordId("éclair");
+        UUID player = player(7);
+        int threads = 8;
+        AtomicInteger winners = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 1000; i++) {
+                        if (debounce.tryAcquire(player, keyword, HOUR_MS)) {
+                            winners.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, winners.get());
+    }
+
+    @Test
+    void concurrentInsertsAcrossRebuildsAreNeitherLostNorDoubled() throws Exception {
+        // petite table : plusieurs gels/recopies pendant que les écrivains tournent
+        DebounceService debounce = new DebounceService(16);
+        int keyword = debounce.keywordId("téléportation");
+        int players = 4000;
+        int threads = 8;
+        AtomicIntegerArray wins = new AtomicIntegerArray(players);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t * (players / threads);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < players; i++) {
+                        int p = (offset + i) % players;
+                        if (debounce.tryAcquire(player(p), keyword, HOUR_MS)) {
+                            wins.incrementAndGet(p);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        for (int p = 0; p < players; p++) {
+            assertEquals(1, wins.get(p), "player " + p);
+        }
+        assertEquals(players, debounce.size());
+    }
+
+    @Test
+    void purgeRemovesExpiredEntriesAndCompactsTombstones() {
+        DebounceService debounce = new DebounceService(16);
+        debounce.setTtl(0);
+        int keyword = debounce.keywordId("soin");
+        for (int i = 0; i < 20; i++) {
+            assertTrue(debounce.tryAcquire(player(i), keyword, 0));
+        }
+        assertEquals(20, debounce.purgeExpired());
+        assertEquals(0, debounce.size());
+        // la table compactée accepte de nouveau ces clés comme des premiers triggers
+        for (int i = 0; i < 20; i++) {
+            assertTrue(debounce.tryAcquire(player(i), keyword, HOUR_MS));
+        }
+        assertEquals(20, debounce.size());
+    }
+
+    @Test
+    void purgeNeverDropsAnEntryInsideItsWindow() {
+        DebounceService debounce = new DebounceService();
+        debounce.setTtl(0);
+        int keyword = debounce.keywordId("bouclier");
+        assertTrue(debounce.tryAcquire(player(1), keyword, HOUR_MS));
+        assertEquals(0, debounce.purgeExpired());
+        assertFalse(debounce.tryAcquire(player(1), keyword, HOUR_MS));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void legacyCheckThenRecordStillWorks() {
+        DebounceService debounce = new DebounceService();
+        UUID player = player(3);
+        assertTrue(debounce.canTrigger(player, "choucroute", HOUR_MS));
+        debounce.recordTrigger(player, "choucroute");
+        assertFalse(debounce.canTrigger(player, "choucroute", HOUR_MS));
+        assertTrue(debounce.canTrigger(player, "choucroute", 0));
+    }
+
+    @Test
+    void snapshotExposesLiveEntriesByKeywordName() {
+        DebounceService debounce = new DebounceService();
+        long before = System.currentTimeMillis();
+        debounce.tryAcquire(player(1), debounce.keywordId("soin"), HOUR_MS);
+        Map<UUID, Map<String, Long>> snapshot = debounce.getSnapshot();
+        assertEquals(1, snapshot.size());
+        long epochMs = snapshot.get(player(1)).get("soin");
+        assertTrue(Math.abs(epochMs - before) < 1000, "epoch " + epochMs + " vs " + before);
+    }
+}
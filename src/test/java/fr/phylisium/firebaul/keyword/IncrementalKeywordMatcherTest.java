@@ -0,0 +1,80 @@
+package fr.phylisium.firebaul.keyword;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static fr.phylisium.firebaul.keyword.TestKeywords.describe;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalKeywordMatcherTest {
+
+    @Test
+    void growingPartialsMatchLikeAFullScan() {
+        KeywordRegistry registry = TestKeywords.registry("boule de feu", "éclair");
+        IncrementalKeywordMatcher incremental = new IncrementalKeywordMatcher(registry);
+        String[] partials = {"envoie", "envoie une boule", "envoie une boule de feu", "envoie une boule de feu puis un éclair"};
+        for (String partial : partials) {
+            assertEquals(describe(registry.findAllMatches(partial)), describe(incremental.update(partial)), partial);
+        }
+    }
+
+    @Test
+    void dropsAMatchWhoseLastWordGrows() {
+        KeywordRegistry registry = TestKeywords.registry("feu");
+        IncrementalKeywordMatcher incremental = new IncrementalKeywordMatcher(registry);
+        assertEquals(List.of("feu[4,7)"), describe(incremental.update("une feu")));
+        // "feu" -> "feux" : ce n'est plus un mot entier
+        assertTrue(incremental.update("une feux").isEmpty());
+        assertEquals(List.of("feu[9,12)"), describe(incremental.update("une feux feu")));
+    }
+
+    @Test
+    void rescansWhenVoskRevisesEarlierWords() {
+        KeywordRegistry registry = TestKeywords.registry("soin", "bouclier");
+        IncrementalKeywordMatcher incremental = new IncrementalKeywordMatcher(registry);
+        assertEquals(List.of("soin[3,7)"), describe(incremental.update("un soin")));
+        // le nouveau partiel ne prolonge plus l'ancien : l'occurrence de "soin" disparaît
+        assertEquals(List.of("bouclier[3,11)"), describe(incremental.update("un bouclier")));
+    }
+
+    @Test
+    void unchangedTextReturnsTheSameSnapshot() {
+        IncrementalKeywordMatcher incremental = new IncrementalKeywordMatcher(TestKeywords.registry("soin"));
+        List<KeywordRegistry.Match> first = incremental.update("un soin");
+        assertTrue(incremental.isChanged());
+        assertSame(first, incremental.update("un soin"));
+        assertFalse(incremental.isChanged());
+    }
+
+    @Test
+    void returnedListsAreNotModifiedByLaterUpdates() {
+        IncrementalKeywordMatcher incremental = new IncrementalKeywordMatcher(TestKeywords.registry("soin"));
+        List<KeywordRegistry.Match> first = incremental.update("un soin");
+        incremental.update("un soin et un soin");
+        assertEquals(List.of("soin[3,7)"), describe(first));
+    }
+
+    @Test
+    void picksUpRegistryChanges() {
+        KeywordRegistry registry = TestKeywords.registry("soin");
+        IncrementalKeywordMatcher incremental = new IncrementalKeywordMatcher(registry);
+        assertEquals(List.of("soin[3,7)"), describe(incremental.update("un soin")));
+        registry.register(TestKeywords.action("un"));
+        assertEquals(List.of("un[0,2)", "soin[3,7)"), describe(incremental.update("un soin")));
+        assertTrue(incremental.isChanged());
+    }
+
+    @Test
+    void resetStartsTheNextUtteranceFromScratch() {
+        IncrementalKeywordMatcher incremental = new IncrementalKeywordMatcher(TestKeywords.registry("soin"));
+        incremental.update("un soin");
+        incremental.reset();
+        assertFalse(incremental.isChanged());
+        assertEquals(List.of("soin[0,4)"), describe(incremental.update("soin")));
+        assertTrue(incremental.update(null).isEmpty());
+    }
+}
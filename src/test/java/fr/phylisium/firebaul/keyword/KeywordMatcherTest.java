@@ -0,0 +1,107 @@
+package fr.phylisium.firebaul.keyword;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static fr.phylisium.firebaul.keyword.TestKeywords.describe;
+import static fr.phylisium.firebaul.keyword.TestKeywords.matcher;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeywordMatcherTest {
+
+    @Test
+    void findsAllKeywordsSortedByStart() {
+        KeywordMatcher matcher = matcher("éclair", "boule de feu", "soin");
+        assertEquals(List.of("boule de feu[11,23)", "éclair[32,38)"),
+                describe(matcher.findAll("envoie une boule de feu puis un éclair")));
+    }
+
+    @Test
+    void ignoresCaseAndAccentsWithOriginalPositions() {
+        KeywordMatcher matcher = matcher("téléportation");
+        String text = "Lance TELEPORTATION maintenant";
+        List<KeywordRegistry.Match> matches = matcher.findAll(text);
+        assertEquals(1, matches.size());
+        assertEquals("TELEPORTATION", text.substring(matches.get(0).start, matches.get(0).end));
+    }
+
+    @Test
+    void matchesWholeWordsOnly() {
+        KeywordMatcher matcher = matcher("soin", "feu");
+        assertTrue(matcher.findAll("j'ai besoin de feux").isEmpty());
+        assertEquals(List.of("soin[0,4)", "feu[9,12)"), describe(matcher.findAll("soin, et feu!")));
+    }
+
+    @Test
+    void reportsKeywordsNestedInLongerOnes() {
+        KeywordMatcher matcher = matcher("feu", "boule de feu");
+        assertEquals(List.of("boule de feu[0,12)", "feu[9,12)"), describe(matcher.findAll("boule de feu")));
+    }
+
+    @Test
+    void followsFailureLinksAcrossOverlappingKeywords() {
+        KeywordMatcher matcher = matcher("le feu", "feu de camp");
+        assertEquals(List.of("le feu[7,13)", "feu de camp[10,21)"),
+                describe(matcher.findAll("allume le feu de camp")));
+    }
+
+    @Test
+    void repeatedOccurrencesAreAllFound() {
+        KeywordMatcher matcher = matcher("soin");
+        assertEquals(List.of("soin[0,4)", "soin[5,9)", "soin[10,14)"), describe(matcher.findAll("soin soin soin")));
+    }
+
+    @Test
+    void charactersOutsideTheAlphabetResetTheAutomaton() {
+        KeywordMatcher matcher = matcher("bouclier");
+        assertTrue(matcher.findAll("bouc€lier").isEmpty());
+        assertEquals(List.of("bouclier[3,11)"), describe(matcher.findAll("€€ bouclier 😀")));
+    }
+
+    @Test
+    void foldedDuplicatesAreRegisteredOnce() {
+        assertEquals(1, matcher("Éclair", "eclair", " ECLAIR ").size());
+        assertEquals(0, matcher("", "   ").size());
+    }
+
+    @Test
+    void emptyMatcherAndEmptyTextFindNothing() {
+        assertTrue(matcher().findAll("boule de feu").isEmpty());
+        assertTrue(matcher("feu").findAll(null).isEmpty());
+        assertTrue(matcher("feu").findAll("").isEmpty());
+    }
+
+    @Test
+    void scanResumesFromAPreviousState() {
+        KeywordMatcher matcher = matcher("boule de feu", "éclair");
+        String text = "une boule de feu et un éclair";
+        List<KeywordRegistry.Match> chunked = new ArrayList<>();
+        int state = KeywordMatcher.ROOT;
+        for (int from = 0; from < text.length(); from += 5) {
+            state = matcher.scan(text.substring(0, Math.min(text.length(), from + 5)), from, state, chunked);
+        }
+        assertEquals(describe(matcher.findAll(text)), describe(chunked));
+    }
+
+    @Test
+    void foldsOneCharacterForOne() {
+        assertEquals("ca a ete noel", KeywordMatcher.fold("Ça a été Noël"));
+        assertEquals('e', KeywordMatcher.fold('È'));
+    }
+
+    @Test
+    void registryRebuildsTheMatcherOnChange() {
+        KeywordRegistry registry = TestKeywords.registry("soin");
+        KeywordMatcher before = registry.getMatcher();
+        long version = registry.getVersion();
+        registry.register(TestKeywords.action("bouclier"));
+        assertTrue(registry.getVersion() > version);
+        assertEquals(1, before.size());
+        assertEquals(List.of("soin[0,4)", "bouclier[8,16)"), describe(registry.findAllMatches("soin et bouclier")));
+        assertTrue(registry.unregister("SOIN"));
+        assertEquals(List.of("bouclier[8,16)"), describe(registry.findAllMatches("soin et bouclier")));
+    }
+}
@@ -0,0 +1,90 @@
+package fr.phylisium.firebaul.keyword;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogLinearHistogramTest {
+    // 32 cases exactes puis 16 cases pour chacune des puissances de deux 2^5 .. 2^62
+    private static final int BUCKETS = 32 + 58 * 16;
+
+    @Test
+    void smallValuesHaveTheirOwnBucket() {
+        for (int value = 0; value < 32; value++) {
+            assertEquals(value, LogLinearHistogram.indexOf(value));
+            assertEquals(value, LogLinearHistogram.upperBound(value));
+        }
+    }
+
+    @Test
+    void logBucketsStartAfterTheLinearRange() {
+        assertEquals(32, LogLinearHistogram.indexOf(32));
+        assertEquals(32, LogLinearHistogram.indexOf(33));
+        assertEquals(33, LogLinearHistogram.indexOf(34));
+        assertEquals(33, LogLinearHistogram.upperBound(32));
+        assertEquals(47, LogLinearHistogram.indexOf(63));
+        assertEquals(48, LogLinearHistogram.indexOf(64));
+        assertEquals(BUCKETS - 1, LogLinearHistogram.indexOf(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, LogLinearHistogram.upperBound(BUCKETS - 1));
+    }
+
+    @Test
+    void bucketsAreContiguousAndWithinTheRelativeError() {
+        for (int index = 1; index < BUCKETS; index++) {
+            long lower = LogLinearHistogram.upperBound(index - 1) + 1;
+            long upper = LogLinearHistogram.upperBound(index);
+            assertTrue(lower <= upper, "bucket " + index);
+            assertEquals(index, LogLinearHistogram.indexOf(lower), "lower bound of bucket " + index);
+            assertEquals(index, LogLinearHistogram.indexOf(upper), "upper bound of bucket " + index);
+            // largeur de case au plus 1/16 de sa borne basse
+            assertTrue(upper - lower < Math.max(1, lower / 16), "bucket " + index + " [" + lower + ", " + upper + "]");
+        }
+    }
+
+    @Test
+    void percentilesReturnTheUpperBoundOfTheRankBucket() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        LogLinearHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(50.5, snapshot.getMean());
+        assertEquals(100, snapshot.getMax());
+        assertEquals(1, snapshot.getPercentile(0));
+        assertEquals(1, snapshot.getPercentile(1));
+        // 50 tombe dans la case [50, 51]
+        assertEquals(51, snapshot.getPercentile(50));
+        // 90 tombe dans la case [88, 91]
+        assertEquals(91, snapshot.getPercentile(90));
+        // borne haute de la case de 100 (103) ramenée au maximum observé
+        assertEquals(100, snapshot.getPercentile(100));
+    }
+
+    @Test
+    void percentileRankIsRoundedUp() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        histogram.record(7);
+        histogram.record(7);
+        histogram.record(7);
+        histogram.record(20);
+        LogLinearHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(7, snapshot.getPercentile(75));
+        assertEquals(20, snapshot.getPercentile(76));
+    }
+
+    @Test
+    void negativeValuesCountAsZeroAndResetEmptiesTheHistogram() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.snapshot().getPercentile(99));
+        assertEquals(1, histogram.snapshot().getCount());
+        histogram.reset();
+        LogLinearHistogram.Snapshot empty = histogram.snapshot();
+        assertEquals(0, empty.getCount());
+        assertEquals(0, empty.getMean());
+        assertEquals(0, empty.getPercentile(50));
+        assertEquals(0, empty.getMax());
+    }
+}
@@ -0,0 +1,67 @@
+package fr.phylisium.firebaul.keyword;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OpusCaptureReaderTest {
+
+    @Test
+    void readsBackWhatTheWriterRecorded(@TempDir Path directory) throws IOException {
+        OpusCaptureWriter writer = new OpusCaptureWriter(directory.toFile(), Logger.getAnonymousLogger());
+        UUID player = new UUID(1, 2);
+        byte[][] recorded = {{1, 2, 3}, {}, new byte[1275]};
+        recorded[2][1274] = 42;
+        for (byte[] frame : recorded) {
+            writer.record(player, frame);
+        }
+        writer.closeAll();
+
+        Path capture;
+        try (Stream<Path> files = Files.list(directory)) {
+            capture = files.findFirst().orElseThrow();
+        }
+        List<Long> timestamps = new ArrayList<>();
+        List<byte[]> frames = new ArrayList<>();
+        int count = OpusCaptureReader.read(capture, (timestampMicros, frame) -> {
+            timestamps.add(timestampMicros);
+            frames.add(frame);
+        });
+
+        assertEquals(recorded.length, count);
+        for (int i = 0; i < recorded.length; i++) {
+            assertArrayEquals(recorded[i], frames.get(i), "frame " + i);
+        }
+        assertTrue(timestamps.get(0) >= 0);
+        for (int i = 1; i < timestamps.size(); i++) {
+            assertTrue(timestamps.get(i) >= timestamps.get(i - 1), "timestamp " + i);
+        }
+    }
+
+    @Test
+    void truncatedFrameIsAnError(@TempDir Path directory) throws IOException {
+        Path capture = directory.resolve("truncated.opuscap");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(capture))) {
+            out.writeLong(0);
+            out.writeShort(10);
+            out.write(new byte[4]);
+        }
+        assertThrows(EOFException.class, () -> OpusCaptureReader.read(capture, (timestampMicros, frame) -> {
+        }));
+    }
+}
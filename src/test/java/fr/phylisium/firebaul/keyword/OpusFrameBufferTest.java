@@ -0,0 +1,177 @@
+package fr.phylisium.firebaul.keyword;
+
+import fr.phylisium.firebaul.keyword.OpusFrameBuffer.OverflowPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OpusFrameBufferTest {
+    // trames de 3 octets ou moins = silence
+    private static final int SILENCE_BYTES = 3;
+
+    private static byte[] speech(int id) {
+        return new byte[]{(byte) id, 1, 2, 3, 4, 5};
+    }
+
+    private static byte[] silence(int id) {
+        return new byte[]{(byte) id};
+    }
+
+    private static byte[][] drain(OpusFrameBuffer buffer) {
+        byte[][] out = new byte[buffer.size()][];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = buffer.poll();
+        }
+        assertNull(buffer.poll());
+        return out;
+    }
+
+    @Test
+    void keepsFifoOrderAcrossWrapAround() {
+        OpusFrameBuffer buffer = new OpusFrameBuffer(3, OverflowPolicy.DROP_OLDEST, SILENCE_BYTES);
+        byte[] a = speech(1);
+        byte[] b = speech(2);
+        byte[] c = speech(3);
+        byte[] d = speech(4);
+        assertTrue(buffer.offer(a));
+        assertTrue(buffer.offer(b));
+        assertSame(a, buffer.poll());
+        assertTrue(buffer.offer(c));
+        assertTrue(buffer.offer(d));
+        assertEquals(3, buffer.size());
+        assertSame(b, buffer.poll());
+        assertSame(c, buffer.poll());
+        assertSame(d, buffer.poll());
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.getDroppedFrames());
+    }
+
+    @Test
+    void dropOldestEvictsHeadWhenFull() {
+        OpusFrameBuffer buffer = new OpusFrameBuffer(2, OverflowPolicy.DROP_OLDEST, SILENCE_BYTES);
+        byte[] a = speech(1);
+        byte[] b = speech(2);
+        byte[] c = speech(3);
+        buffer.offer(a);
+        buffer.offer(b);
+        assertTrue(buffer.offer(c));
+        assertEquals(1, buffer.getDroppedOldest());
+        assertEquals(0, buffer.getDroppedNewest());
+        assertArrayEquals(new byte[][]{b, c}, drain(buffer));
+    }
+
+    @Test
+    void dropNewestRejectsIncomingWhenFull() {
+        OpusFrameBuffer buffer = new OpusFrameBuffer(2, OverflowPolicy.DROP_NEWEST, SILENCE_BYTES);
+        byte[] a = speech(1);
+        byte[] b = speech(2);
+        buffer.offer(a);
+        buffer.offer(b);
+        assertFalse(buffer.offer(speech(3)));
+        assertEquals(1, buffer.getDroppedNewest());
+        assertEquals(0, buffer.getDroppedOldest());
+        assertArrayEquals(new byte[][]{a, b}, drain(buffer));
+    }
+
+    @Test
+    void coalesceMergesConsecutiveSilence() {
+        OpusFrameBuffer buffer = new OpusFrameBuffer(2, OverflowPolicy.COALESCE_SILENCE, SILENCE_BYTES);
+        byte[] a = speech(1);
+        byte[] quiet = silence(2);
+        buffer.offer(a);
+        buffer.offer(quiet);
+        assertFalse(buffer.offer(silence(3)));
+        assertEquals(1, buffer.getCoalescedSilence());
+        assertArrayEquals(new byte[][]{a, quiet}, drain(buffer));
+    }
+
+    @Test
+    void coalesceSacrificesQueuedSilenceBeforeSpeech() {
+        OpusFrameBuffer buffer = new OpusFrameBuffer(3, OverflowPolicy.COALESCE_SILENCE, SILENCE_BYTES);
+        byte[] a = speech(1);
+        byte[] quiet = silence(2);
+        byte[] b = speech(3);
+        byte[] c = speech(4);
+        buffer.offer(a);
+        buffer.offer(quiet);
+        buffer.offer(b);
+        assertTrue(buffer.offer(c));
+        assertEquals(1, buffer.getCoalescedSilence());
+        assertEquals(0, buffer.getDroppedOldest());
+        assertArrayEquals(new byte[][]{a, b, c}, drain(buffer));
+    }
+
+    @Test
+    void coalesceFallsBackToDropOldestOnSpeechOnlyQueue() {
+        OpusFrameBuffer buffer = new OpusFrameBuffer(2, OverflowPolicy.COALESCE_SILENCE, SILENCE_BYTES);
+        byte[] a = speech(1);
+        byte[] b = speech(2);
+        byte[] c = speech(3);
+        buffer.offer(a);
+        buffer.offer(b);
+        assertTrue(buffer.offer(c));
+        assertEquals(1, buffer.getDroppedOldest());
+        assertEquals(0, buffer.getCoalescedSilence());
+        assertArrayEquals(new byte[][]{b, c}, drain(buffer));
+    }
+
+    @Test
+    void coalesceRemovesSilenceFromWrappedQueue() {
+        OpusFrameBuffer buffer = new OpusFrameBuffer(3, OverflowPolicy.COALESCE_SILENCE, SILENCE_BYTES);
+        buffer.offer(speech(0));
+        buffer.offer(speech(0));
+        buffer.poll();
+        buffer.poll();
+        // head = 2 : la file [a, silence, b] fait le tour du tableau
+        byte[] a = speech(1);
+        byte[] quiet = silence(2);
+        byte[] b = speech(3);
+        byte[] c = speech(4);
+        buffer.offer(a);
+        buffer.offer(quiet);
+        buffer.offer(b);
+        assertTrue(buffer.offer(c));
+        assertArrayEquals(new byte[][]{a, b, c}, drain(buffer));
+    }
+
+    @Test
+    void droppedFramesSumsAllCounters() {
+        OpusFrameBuffer buffer = new OpusFrameBuffer(1, OverflowPolicy.COALESCE_SILENCE, SILENCE_BYTES);
+        buffer.offer(silence(1));
+        // silence sur silence : fusionné
+        buffer.offer(silence(2));
+        // parole : le silence en attente est sacrifié
+        buffer.offer(speech(3));
+        // parole sur parole : la plus ancienne part
+        byte[] last = speech(4);
+        buffer.offer(last);
+        assertEquals(2, buffer.getCoalescedSilence());
+        assertEquals(1, buffer.getDroppedOldest());
+        assertEquals(3, buffer.getDroppedFrames());
+        assertArrayEquals(new byte[][]{last}, drain(buffer));
+    }
+
+    @Test
+    void timedPollReturnsNullWhenEmpty() throws InterruptedException {
+        OpusFrameBuffer buffer = new OpusFrameBuffer(4, OverflowPolicy.DROP_OLDEST, SILENCE_BYTES);
+        assertNull(buffer.poll(1, TimeUnit.MILLISECONDS));
+        byte[] a = speech(1);
+        buffer.offer(a);
+        assertSame(a, buffer.poll(1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void policyFromConfigIsLenient() {
+        assertEquals(OverflowPolicy.COALESCE_SILENCE, OverflowPolicy.fromConfig(" coalesce-silence ", OverflowPolicy.DROP_OLDEST));
+        assertEquals(OverflowPolicy.DROP_NEWEST, OverflowPolicy.fromConfig("drop_newest", OverflowPolicy.DROP_OLDEST));
+        assertEquals(OverflowPolicy.DROP_OLDEST, OverflowPolicy.fromConfig("unknown", OverflowPolicy.DROP_OLDEST));
+        assertEquals(OverflowPolicy.DROP_OLDEST, OverflowPolicy.fromConfig(null, OverflowPolicy.DROP_OLDEST));
+    }
+}
@@ -0,0 +1,118 @@
+package fr.phylisium.firebaul.keyword;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PolyphaseResamplerTest {
+    private static final int IN_RATE = 48000;
+    private static final int OUT_RATE = 16000;
+    private static final int FRAME = 960;
+    private static final int TAPS_PER_PHASE = 32;
+
+    private static short[] tone(double frequency, double amplitude, int length) {
+        short[] samples = new short[length];
+        for (int i = 0; i < length; i++) {
+            samples[i] = (short) Math.round(amplitude * Math.sin(2 * Math.PI * frequency * i / IN_RATE));
+        }
+        return samples;
+    }
+
+    private static short[] resampleByFrames(PolyphaseResampler resampler, short[] input, int frame) {
+        short[] out = new short[resampler.maxOutputLength(input.length) + input.length / frame + 1];
+        short[] chunk = new short[resampler.maxOutputLength(frame)];
+        int written = 0;
+        for (int offset = 0; offset < input.length; offset += frame) {
+            int length = Math.min(frame, input.length - offset);
+            int produced = resampler.process(Arrays.copyOfRange(input, offset, offset + length), length, chunk);
+            System.arraycopy(chunk, 0, out, written, produced);
+            written += produced;
+        }
+        return Arrays.copyOf(out, written);
+    }
+
+    // amplitude crête hors régime transitoire du filtre
+    private static double peak(short[] samples, int skip) {
+        int max = 0;
+        for (int i = skip; i < samples.length; i++) {
+            max = Math.max(max, Math.abs(samples[i]));
+        }
+        return max;
+    }
+
+    @Test
+    void decimatesFramesByTheRateRatio() {
+        PolyphaseResampler resampler = new PolyphaseResampler(IN_RATE, OUT_RATE, TAPS_PER_PHASE);
+        assertEquals(3, resampler.getFactor());
+        short[] out = new short[resampler.maxOutputLength(FRAME)];
+        for (int i = 0; i < 5; i++) {
+            assertEquals(FRAME / 3, resampler.process(new short[FRAME], FRAME, out));
+        }
+    }
+
+    @Test
+    void keepsUnitGainOnDirectCurrent() {
+        PolyphaseResampler resampler = new PolyphaseResampler(IN_RATE, OUT_RATE, TAPS_PER_PHASE);
+        short[] input = new short[FRAME * 2];
+        Arrays.fill(input, (short) 10000);
+        short[] out = resampleByFrames(resampler, input, FRAME);
+        for (int i = TAPS_PER_PHASE; i < out.length; i++) {
+            assertEquals(10000, out[i], 2, "sample " + i);
+        }
+    }
+
+    @Test
+    void passesVoiceBand() {
+        PolyphaseResampler resampler = new PolyphaseResampler(IN_RATE, OUT_RATE, TAPS_PER_PHASE);
+        short[] out = resampleByFrames(resampler, tone(1000, 8000, FRAME * 4), FRAME);
+        assertEquals(8000, peak(out, TAPS_PER_PHASE), 8000 * 0.02);
+    }
+
+    @Test
+    void attenuatesAboveOutputNyquist() {
+        PolyphaseResampler resampler = new PolyphaseResampler(IN_RATE, OUT_RATE, TAPS_PER_PHASE);
+        // 12 kHz se replierait sur 4 kHz sans filtre anti-repliement
+        short[] out = resampleByFrames(resampler, tone(12000, 16000, FRAME * 4), FRAME);
+        assertTrue(peak(out, TAPS_PER_PHASE) < 16000 * 0.01, "aliased peak " + peak(out, TAPS_PER_PHASE));
+    }
+
+    @Test
+    void splittingTheInputDoesNotChangeTheOutput() {
+        short[] input = tone(440, 12000, FRAME * 3);
+        short[] whole = resampleByFrames(new PolyphaseResampler(IN_RATE, OUT_RATE, TAPS_PER_PHASE), input, input.length);
+        // tailles de trame non multiples du facteur : la phase doit survivre d'un appel à l'autre
+        short[] split = resampleByFrames(new PolyphaseResampler(IN_RATE, OUT_RATE, TAPS_PER_PHASE), input, 127);
+        assertArrayEquals(whole, split);
+    }
+
+    @Test
+    void growsBuffersForLargerFrames() {
+        PolyphaseResampler resampler = new PolyphaseResampler(IN_RATE, OUT_RATE, TAPS_PER_PHASE);
+        int large = FRAME * 4;
+        short[] out = new short[resampler.maxOutputLength(large)];
+        assertEquals(large / 3, resampler.process(new short[large], large, out));
+    }
+
+    @Test
+    void resetForgetsFilterHistory() {
+        short[] input = tone(440, 12000, FRAME);
+        PolyphaseResampler fresh = new PolyphaseResampler(IN_RATE, OUT_RATE, TAPS_PER_PHASE);
+        short[] expected = resampleByFrames(fresh, input, FRAME);
+
+        PolyphaseResampler reused = new PolyphaseResampler(IN_RATE, OUT_RATE, TAPS_PER_PHASE);
+        resampleByFrames(reused, tone(3000, 20000, FRAME), FRAME);
+        reused.reset();
+        assertArrayEquals(expected, resampleByFrames(reused, input, FRAME));
+    }
+
+    @Test
+    void rejectsNonIntegerRatios() {
+        assertThrows(IllegalArgumentException.class, () -> new PolyphaseResampler(44100, 16000, TAPS_PER_PHASE));
+        assertThrows(IllegalArgumentException.class, () -> new PolyphaseResampler(IN_RATE, 0, TAPS_PER_PHASE));
+    }
+}
@@ -0,0 +1,64 @@
+package fr.phylisium.firebaul.keyword;
+
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextColor;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Mots-clés factices pour les tests du matcher et du registre.
+ */
+final class TestKeywords {
+    private TestKeywords() {
+    }
+
+    static KeywordAction action(String keyword) {
+        return new KeywordAction() {
+            @Override
+            public String getKeyword() {
+                return keyword;
+            }
+
+            @Override
+            public TextColor getColor() {
+                return NamedTextColor.GOLD;
+            }
+
+            @Override
+            public Consumer<Player> getHandler() {
+                return player -> {
+                };
+            }
+        };
+    }
+
+    static KeywordRegistry registry(String... keywords) {
+        KeywordRegistry registry = new KeywordRegistry();
+        for (String keyword : keywords) {
+            registry.register(action(keyword));
+        }
+        return registry;
+    }
+
+    static KeywordMatcher matcher(String... keywords) {
+        List<KeywordAction> actions = new ArrayList<>();
+        for (String keyword : keywords) {
+            actions.add(action(keyword));
+        }
+        return KeywordMatcher.build(actions);
+    }
+
+    /**
+     * Occurrences sous la forme "mot-clé[début,fin)", dans l'ordre de la liste.
+     */
+    static List<String> describe(List<KeywordRegistry.Match> matches) {
+        List<String> out = new ArrayList<>(matches.size());
+        for (KeywordRegistry.Match match : matches) {
+            out.add(match.toString());
+        }
+        return out;
+    }
+}
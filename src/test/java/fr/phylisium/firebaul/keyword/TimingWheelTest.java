@@ -0,0 +1,142 @@
+package fr.phylisium.firebaul.keyword;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+    private static final long TICK = TimeUnit.SECONDS.toNanos(1);
+    // portée de la roue : 3 niveaux de 64 cases
+    private static final long SPAN_TICKS = (1L << 18) - 1;
+
+    private TimingWheel<String> wheel;
+    private long origin;
+    private final List<String> fired = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        wheel = new TimingWheel<>(TICK);
+        origin = System.nanoTime();
+    }
+
+    /**
+     * Instant qui tombe dans le tick {@code tick} de la roue (milieu du tick, à l'abri de la dérive
+     * entre la construction de la roue et la lecture de {@link #origin}).
+     */
+    private long at(long tick) {
+        return origin + tick * TICK - TICK / 2;
+    }
+
+    private int advanceTo(long tick) {
+        return wheel.advance(at(tick), fired::add);
+    }
+
+    @Test
+    void firesAtTheDeadlineTickAndNotBefore() {
+        wheel.schedule("a", at(5));
+        assertEquals(1, wheel.size());
+        assertEquals(0, advanceTo(4));
+        assertEquals(1, advanceTo(5));
+        assertEquals(List.of("a"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesFromTheSecondLevel() {
+        wheel.schedule("level1", at(64 * 3 + 7));
+        assertEquals(0, advanceTo(64 * 3 + 6));
+        assertEquals(1, advanceTo(64 * 3 + 7));
+        assertEquals(List.of("level1"), fired);
+    }
+
+    @Test
+    void cascadesFromTheThirdLevel() {
+        long deadline = 64L * 64 * 2 + 64 + 3;
+        wheel.schedule("level2", at(deadline));
+        assertEquals(0, advanceTo(deadline - 1));
+        assertEquals(1, advanceTo(deadline));
+        assertEquals(List.of("level2"), fired);
+    }
+
+    @Test
+    void firesEachTimerOnItsOwnTickAcrossLevels() {
+        long[] deadlines = {1, 63, 64, 65, 127, 128, 4095, 4096, 4097, 70000};
+        for (long deadline : deadlines) {
+            wheel.schedule(Long.toString(deadline), at(deadline));
+        }
+        int index = 0;
+        for (long tick = 1; tick <= deadlines[deadlines.length - 1]; tick++) {
+            int count = advanceTo(tick);
+            if (index < deadlines.length && deadlines[index] == tick) {
+                assertEquals(1, count, "tick " + tick);
+                assertEquals(Long.toString(tick), fired.get(fired.size() - 1));
+                index++;
+            } else {
+                assertEquals(0, count, "tick " + tick);
+            }
+        }
+        assertEquals(deadlines.length, fired.size());
+    }
+
+    @Test
+    void cascadedTimersKeepTheirExactTickAfterPartialAdvance() {
+        // la roue a déjà tourné : la cascade part d'un tick non aligné
+        advanceTo(37);
+        wheel.schedule("late", at(37 + 200));
+        assertEquals(0, advanceTo(37 + 199));
+        assertEquals(1, advanceTo(37 + 200));
+    }
+
+    @Test
+    void clampsDeadlinesBeyondTheSpan() {
+        wheel.schedule("far", at(SPAN_TICKS + 1000));
+        assertEquals(0, advanceTo(SPAN_TICKS - 1));
+        // ramenée à la dernière case : l'appelant revérifie l'échéance réelle
+        assertEquals(1, advanceTo(SPAN_TICKS));
+        assertEquals(List.of("far"), fired);
+    }
+
+    @Test
+    void pastDeadlinesFireOnTheNextTick() {
+        advanceTo(10);
+        wheel.schedule("past", at(3));
+        assertEquals(1, advanceTo(11));
+    }
+
+    @Test
+    void skipsIdleTicksAndStillHonoursNewTimers() {
+        assertEquals(0, advanceTo(1_000_000));
+        wheel.schedule("after-jump", at(1_000_003));
+        assertEquals(0, advanceTo(1_000_002));
+        assertEquals(1, advanceTo(1_000_003));
+    }
+
+    @Test
+    void timersScheduledDuringExpiryAreKept() {
+        wheel.schedule("first", at(2));
+        int count = wheel.advance(at(2), item -> {
+            fired.add(item);
+            wheel.schedule("again", at(6));
+        });
+        assertEquals(1, count);
+        assertEquals(1, wheel.size());
+        assertEquals(0, advanceTo(5));
+        assertEquals(1, advanceTo(6));
+        assertEquals(List.of("first", "again"), fired);
+    }
+
+    @Test
+    void multipleTimersInOneSlotAllFire() {
+        for (int i = 0; i < 100; i++) {
+            wheel.schedule("t" + i, at(300));
+        }
+        assertEquals(100, advanceTo(300));
+        assertTrue(fired.contains("t0") && fired.contains("t99"));
+    }
+}
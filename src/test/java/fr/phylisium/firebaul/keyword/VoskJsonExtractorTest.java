@@ -0,0 +1,69 @@
+package fr.phylisium.firebaul.keyword;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class VoskJsonExtractorTest {
+
+    @Test
+    void readsPartialAndFinalResults() {
+        assertEquals("boule de feu", VoskJsonExtractor.extract("{\n  \"partial\" : \"boule de feu\"\n}", "partial"));
+        assertEquals("éclair", VoskJsonExtractor.extract("{\"text\":\"éclair\"}", "text"));
+    }
+
+    @Test
+    void decodesEscapesAndUnicodeSequences() {
+        assertEquals("a\"b\\c\nd\te/f", VoskJsonExtractor.extract("{\"text\" : \"a\\\"b\\\\c\\nd\\te\\/f\"}", "text"));
+        assertEquals("café à", VoskJsonExtractor.extract("{\"text\" : \"caf\\u00e9 \\u00E0\"}", "text"));
+        // chiffres hexadécimaux invalides : remplacés, la suite est lue normalement
+        assertEquals("?ok", VoskJsonExtractor.extract("{\"text\" : \"\\uzzzzok\"}", "text"));
+    }
+
+    @Test
+    void keepsATruncatedUnicodeEscape() {
+        assertEquals("caf\\u00", VoskJsonExtractor.extract("{\"text\" : \"caf\\u00\"}", "text"));
+        assertEquals("x\\u", VoskJsonExtractor.extract("{\"text\" : \"x\\u\"}", "text"));
+    }
+
+    @Test
+    void trimsSurroundingWhitespace() {
+        assertEquals("soin", VoskJsonExtractor.extract("{\"text\" : \"  soin \"}", "text"));
+        // même chose sur le chemin avec échappements
+        assertEquals("un\nsoin", VoskJsonExtractor.extract("{\"text\" : \"\\t un\\nsoin \\n\"}", "text"));
+    }
+
+    @Test
+    void emptyOrBlankValueIsNull() {
+        assertNull(VoskJsonExtractor.extract("{\"text\" : \"\"}", "text"));
+        assertNull(VoskJsonExtractor.extract("{\"partial\" : \"   \"}", "partial"));
+        assertNull(VoskJsonExtractor.extract("{\"text\" : \"\\n\"}", "text"));
+    }
+
+    @Test
+    void missingOrNonStringFieldIsNull() {
+        assertNull(VoskJsonExtractor.extract("{\"partial\" : \"soin\"}", "text"));
+        assertNull(VoskJsonExtractor.extract("{\"text\" : 3}", "text"));
+        assertNull(VoskJsonExtractor.extract("{}", "text"));
+        assertNull(VoskJsonExtractor.extract("", "text"));
+        assertNull(VoskJsonExtractor.extract(null, "text"));
+        // la valeur "text" d'un autre champ n'est pas une clé
+        assertEquals("ok", VoskJsonExtractor.extract("{\"partial\" : \"text\", \"text\" : \"ok\"}", "text"));
+    }
+
+    @Test
+    void ignoresNestedFieldsWithTheSameName() {
+        String json = "{\"result\" : [{\"conf\" : 1.0, \"end\" : 0.9, \"text\" : \"imbriqué\"}], \"text\" : \"racine\"}";
+        assertEquals("racine", VoskJsonExtractor.extract(json, "text"));
+        assertNull(VoskJsonExtractor.extract("{\"result\" : [{\"text\" : \"imbriqué\"}]}", "text"));
+        assertNull(VoskJsonExtractor.extract("{\"alt\" : {\"text\" : \"imbriqué\"}}", "text"));
+    }
+
+    @Test
+    void unterminatedStringsAreNull() {
+        assertNull(VoskJsonExtractor.extract("{\"text\" : \"boule de", "text"));
+        assertNull(VoskJsonExtractor.extract("{\"text\" : \"fin\\\"}", "text"));
+        assertNull(VoskJsonExtractor.extract("{\"tex", "text"));
+    }
+}